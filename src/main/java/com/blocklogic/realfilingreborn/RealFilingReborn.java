@@ -4,6 +4,7 @@ import com.blocklogic.realfilingreborn.block.ModBlocks;
 import com.blocklogic.realfilingreborn.block.entity.ModBlockEntities;
 import com.blocklogic.realfilingreborn.block.entity.renderer.FilingCabinetBlockEntityRenderer;
 import com.blocklogic.realfilingreborn.block.entity.renderer.FluidCabinetBlockEntityRenderer;
+import com.blocklogic.realfilingreborn.capability.ModCapabilities;
 import com.blocklogic.realfilingreborn.component.ModDataComponents;
 import com.blocklogic.realfilingreborn.config.Config;
 import com.blocklogic.realfilingreborn.item.ModCreativeModTab;
@@ -13,6 +14,7 @@ import com.blocklogic.realfilingreborn.item.custom.FluidCanisterItem;
 import com.blocklogic.realfilingreborn.item.custom.NBTFilingFolderItem;
 import com.blocklogic.realfilingreborn.screen.ModMenuTypes;
 import com.blocklogic.realfilingreborn.screen.custom.*;
+import com.blocklogic.realfilingreborn.util.FluidHelper;
 import net.neoforged.neoforge.capabilities.Capabilities;
 import net.neoforged.neoforge.capabilities.RegisterCapabilitiesEvent;
 import net.neoforged.neoforge.client.event.EntityRenderersEvent;
@@ -65,7 +67,7 @@ public class RealFilingReborn
 
     private void commonSetup(final FMLCommonSetupEvent event)
     {
-
+        event.enqueueWork(FluidHelper::rebuildBucketMap);
     }
 
     private void addCreative(BuildCreativeModeTabContentsEvent event)
@@ -102,6 +104,12 @@ public class RealFilingReborn
                 ModBlockEntities.FILING_INDEX_BE.get(),
                 (filingIndexBE, side) -> filingIndexBE.getFluidCapabilityHandler(side)
         );
+
+        event.registerBlockEntity(
+                ModCapabilities.FILING_INDEX_STORAGE,
+                ModBlockEntities.FILING_INDEX_BE.get(),
+                (filingIndexBE, side) -> filingIndexBE.getStorage(side)
+        );
     }
 
     @SubscribeEvent
@@ -160,6 +168,12 @@ public class RealFilingReborn
                     ModBlockEntities.FILING_INDEX_BE.get(),
                     (filingIndexBE, side) -> filingIndexBE.getFluidCapabilityHandler(side)
             );
+
+            event.registerBlockEntity(
+                    ModCapabilities.FILING_INDEX_STORAGE,
+                    ModBlockEntities.FILING_INDEX_BE.get(),
+                    (filingIndexBE, side) -> filingIndexBE.getStorage(side)
+            );
         }
     }
 }
\ No newline at end of file
@@ -12,9 +12,11 @@ import net.minecraft.core.Direction;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.ItemInteractionResult;
@@ -36,8 +38,6 @@ import net.minecraft.world.phys.shapes.CollisionContext;
 import net.minecraft.world.phys.shapes.VoxelShape;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 
 public class FilingCabinetBlock extends BaseEntityBlock {
@@ -81,16 +81,18 @@ public class FilingCabinetBlock extends BaseEntityBlock {
         return new FilingCabinetBlockEntity(blockPos, blockState);
     }
 
+    @Override
+    protected void tick(BlockState state, ServerLevel level, BlockPos pos, RandomSource random) {
+        if (level.getBlockEntity(pos) instanceof FilingCabinetBlockEntity blockEntity) {
+            blockEntity.flushClientSync();
+        }
+    }
+
     @Override
     public void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean movedByPiston) {
         if (state.getBlock() != newState.getBlock()) {
             if (level.getBlockEntity(pos) instanceof FilingCabinetBlockEntity filingCabinetBlockEntity) {
-                BlockPos controllerPos = filingCabinetBlockEntity.getControllerPos();
-                if (controllerPos != null) {
-                    if (level.getBlockEntity(controllerPos) instanceof FilingIndexBlockEntity indexEntity) {
-                        indexEntity.removeCabinet(pos);
-                    }
-                }
+                FilingIndexBlockEntity.unlinkCabinet(level, pos, filingCabinetBlockEntity.getControllerPos());
 
                 filingCabinetBlockEntity.drops();
                 level.updateNeighbourForOutputSignal(pos, this);
@@ -151,8 +153,7 @@ public class FilingCabinetBlock extends BaseEntityBlock {
                     heldItem.shrink(1);
                     level.playSound(null, pos, SoundEvents.ITEM_PICKUP, SoundSource.BLOCKS, 1f, 2f);
 
-                    level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-                    filingCabinetBlockEntity.setChanged();
+                    filingCabinetBlockEntity.notifyFolderContentsChanged();
                     return ItemInteractionResult.SUCCESS;
                 }
             }
@@ -198,12 +199,11 @@ public class FilingCabinetBlock extends BaseEntityBlock {
                             heldItem.shrink(heldItem.getCount());
 
                             level.playSound(null, pos, SoundEvents.ITEM_PICKUP, SoundSource.BLOCKS, 1f, 1.5f);
-                            level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-                            filingCabinetBlockEntity.setChanged();
+                            filingCabinetBlockEntity.notifyFolderContentsChanged();
                             return ItemInteractionResult.SUCCESS;
                         } else if (contents.storedItemId().get().equals(itemId)) {
-                            int maxToAdd = Config.getMaxFolderStorage() - contents.count();
-                            int toAdd = Math.min(heldItem.getCount(), maxToAdd);
+                            long maxToAdd = Config.getMaxFolderStorage() - contents.count();
+                            int toAdd = (int) Math.min(heldItem.getCount(), maxToAdd);
 
                             if (toAdd > 0) {
                                 FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
@@ -212,8 +212,7 @@ public class FilingCabinetBlock extends BaseEntityBlock {
                                 heldItem.shrink(toAdd);
 
                                 level.playSound(null, pos, SoundEvents.ITEM_PICKUP, SoundSource.BLOCKS, 1f, 1.5f);
-                                level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-                                filingCabinetBlockEntity.setChanged();
+                                filingCabinetBlockEntity.notifyFolderContentsChanged();
                                 return ItemInteractionResult.SUCCESS;
                             }
                         }
@@ -224,43 +223,23 @@ public class FilingCabinetBlock extends BaseEntityBlock {
                     NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
                     if (contents != null) {
                         if (contents.storedItemId().isEmpty()) {
-                            List<NBTFilingFolderItem.SerializedItemStack> newItems = new ArrayList<>();
                             int toAdd = Math.min(heldItem.getCount(), Config.getMaxNBTFolderStorage());
-                            for (int count = 0; count < toAdd; count++) {
-                                ItemStack singleItem = heldItem.copy();
-                                singleItem.setCount(1);
-                                newItems.add(new NBTFilingFolderItem.SerializedItemStack(singleItem));
-                            }
-
-                            NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                                    Optional.of(itemId), newItems);
-                            folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
+                            folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withAppended(itemId, heldItem, toAdd));
                             heldItem.shrink(toAdd);
 
                             level.playSound(null, pos, SoundEvents.ITEM_PICKUP, SoundSource.BLOCKS, 1f, 1.5f);
-                            level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-                            filingCabinetBlockEntity.setChanged();
+                            filingCabinetBlockEntity.notifyFolderContentsChanged();
                             return ItemInteractionResult.SUCCESS;
                         } else if (contents.storedItemId().get().equals(itemId)) {
-                            if (contents.storedItems().size() < Config.getMaxNBTFolderStorage()) {
-                                List<NBTFilingFolderItem.SerializedItemStack> newItems = new ArrayList<>(contents.storedItems());
-                                int availableSpace = Config.getMaxNBTFolderStorage() - newItems.size();
+                            if (contents.totalCount() < Config.getMaxNBTFolderStorage()) {
+                                int availableSpace = Config.getMaxNBTFolderStorage() - contents.totalCount();
                                 int toAdd = Math.min(heldItem.getCount(), availableSpace);
 
-                                for (int count = 0; count < toAdd; count++) {
-                                    ItemStack singleItem = heldItem.copy();
-                                    singleItem.setCount(1);
-                                    newItems.add(new NBTFilingFolderItem.SerializedItemStack(singleItem));
-                                }
-
-                                NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                                        contents.storedItemId(), newItems);
-                                folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
+                                folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withAppended(heldItem, toAdd));
                                 heldItem.shrink(toAdd);
 
                                 level.playSound(null, pos, SoundEvents.ITEM_PICKUP, SoundSource.BLOCKS, 1f, 1.5f);
-                                level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-                                filingCabinetBlockEntity.setChanged();
+                                filingCabinetBlockEntity.notifyFolderContentsChanged();
                                 return ItemInteractionResult.SUCCESS;
                             }
                         }
@@ -312,7 +291,7 @@ public class FilingCabinetBlock extends BaseEntityBlock {
 
             ItemStack dummyStack = new ItemStack(item);
             int maxStackSize = item.getMaxStackSize(dummyStack);
-            int extractAmount = Math.min(Math.min(contents.count(), maxStackSize), 64);
+            int extractAmount = (int) Math.min(Math.min(contents.count(), maxStackSize), 64);
 
             if (extractAmount <= 0) {
                 player.displayClientMessage(Component.translatable("message.realfilingreborn.folder_empty"), true);
@@ -320,7 +299,7 @@ public class FilingCabinetBlock extends BaseEntityBlock {
             }
 
             ItemStack extractedStack = new ItemStack(item, extractAmount);
-            int newCount = contents.count() - extractAmount;
+            long newCount = contents.count() - extractAmount;
             FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
                     contents.storedItemId(), Math.max(0, newCount));
             folderStack.set(FilingFolderItem.FOLDER_CONTENTS.value(), newContents);
@@ -330,8 +309,7 @@ public class FilingCabinetBlock extends BaseEntityBlock {
             }
 
             level.playSound(null, pos, SoundEvents.ITEM_PICKUP, SoundSource.BLOCKS, 1f, 1.0f);
-            level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-            blockEntity.setChanged();
+            blockEntity.notifyFolderContentsChanged();
 
             return InteractionResult.SUCCESS;
         }
@@ -343,21 +321,15 @@ public class FilingCabinetBlock extends BaseEntityBlock {
                 return InteractionResult.SUCCESS;
             }
 
-            List<NBTFilingFolderItem.SerializedItemStack> items = new ArrayList<>(contents.storedItems());
-            NBTFilingFolderItem.SerializedItemStack serializedItem = items.remove(items.size() - 1);
-            ItemStack extracted = serializedItem.stack().copy();
-
-            NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                    contents.storedItemId(), items);
-            folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
+            ItemStack extracted = contents.items().last().stack().copy();
+            folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withoutLast(1));
 
             if (!player.getInventory().add(extracted)) {
                 player.drop(extracted, false);
             }
 
             level.playSound(null, pos, SoundEvents.ITEM_PICKUP, SoundSource.BLOCKS, 1f, 1.0f);
-            level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-            blockEntity.setChanged();
+            blockEntity.notifyFolderContentsChanged();
 
             return InteractionResult.SUCCESS;
         }
@@ -1,11 +1,10 @@
 package com.blocklogic.realfilingreborn.block.custom;
 
 import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
-import com.blocklogic.realfilingreborn.component.LedgerData;
-import com.blocklogic.realfilingreborn.component.ModDataComponents;
-import com.blocklogic.realfilingreborn.item.custom.LedgerItem;
+import com.blocklogic.realfilingreborn.util.IndexNetworkRegistry;
 import com.mojang.serialization.MapCodec;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -96,7 +95,10 @@ public class FilingIndexBlock extends BaseEntityBlock {
             if (level.getBlockEntity(pos) instanceof FilingIndexBlockEntity filingIndexBlockEntity) {
                 filingIndexBlockEntity.clearAllLinkedCabinets();
 
-                clearControllerFromNearbyLedgers(level, pos);
+                IndexNetworkRegistry registry = IndexNetworkRegistry.get(level);
+                if (registry != null) {
+                    registry.removeController(pos);
+                }
 
                 filingIndexBlockEntity.drops();
                 level.updateNeighbourForOutputSignal(pos, this);
@@ -105,53 +107,21 @@ public class FilingIndexBlock extends BaseEntityBlock {
         super.onRemove(state, level, pos, newState, movedByPiston);
     }
 
-    private void clearControllerFromNearbyLedgers(Level level, BlockPos controllerPos) {
-        if (level.isClientSide()) return;
-
-        level.players().forEach(player -> {
-            if (player.distanceToSqr(controllerPos.getX(), controllerPos.getY(), controllerPos.getZ()) <= 64 * 64) {
-                clearControllerFromPlayerLedgers(player, controllerPos);
-            }
-        });
-    }
-
-    private void clearControllerFromPlayerLedgers(Player player, BlockPos controllerPos) {
-        ItemStack mainHand = player.getMainHandItem();
-        if (mainHand.getItem() instanceof LedgerItem) {
-            clearControllerFromLedger(mainHand, controllerPos, player);
-        }
-
-        ItemStack offHand = player.getOffhandItem();
-        if (offHand.getItem() instanceof LedgerItem) {
-            clearControllerFromLedger(offHand, controllerPos, player);
-        }
-
-        for (int i = 0; i < player.getInventory().getContainerSize(); i++) {
-            ItemStack stack = player.getInventory().getItem(i);
-            if (stack.getItem() instanceof LedgerItem) {
-                clearControllerFromLedger(stack, controllerPos, player);
-            }
-        }
-    }
-
-    private void clearControllerFromLedger(ItemStack ledgerStack, BlockPos controllerPos, Player player) {
-        LedgerData data = ledgerStack.getOrDefault(
-                ModDataComponents.LEDGER_DATA.get(),
-                LedgerData.DEFAULT
-        );
-
-        if (data.selectedController() != null && data.selectedController().equals(controllerPos)) {
-            LedgerData newData = data.withSelectedController(null);
-            ledgerStack.set(ModDataComponents.LEDGER_DATA.get(), newData);
-
-            Component message = Component.translatable("item.realfilingreborn.ledger.controller.cleared");
-            player.displayClientMessage(message, true);
-        }
-    }
-
     @Override
     protected ItemInteractionResult useItemOn(ItemStack stack, BlockState state, Level level, BlockPos pos, Player player, InteractionHand hand, BlockHitResult hitResult) {
         if (level.getBlockEntity(pos) instanceof FilingIndexBlockEntity filingIndexBlockEntity) {
+            if (player.isCrouching() && stack.isEmpty()) {
+                if (!level.isClientSide()) {
+                    Direction side = hitResult.getDirection();
+                    boolean aggregated = filingIndexBlockEntity.toggleAggregated(side);
+                    player.displayClientMessage(Component.translatable(aggregated
+                                    ? "message.realfilingreborn.index_side_aggregated"
+                                    : "message.realfilingreborn.index_side_per_folder",
+                            Component.translatable("direction.realfilingreborn." + side.getSerializedName())), true);
+                }
+                return ItemInteractionResult.SUCCESS;
+            }
+
             if (!level.isClientSide()) {
                 ((ServerPlayer) player).openMenu(new SimpleMenuProvider(filingIndexBlockEntity, Component.translatable("menu.realfilingreborn.filing_index")), pos);
                 return ItemInteractionResult.SUCCESS;
@@ -2,24 +2,25 @@ package com.blocklogic.realfilingreborn.block.custom;
 
 import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
 import com.blocklogic.realfilingreborn.block.entity.FluidCabinetBlockEntity;
+import com.blocklogic.realfilingreborn.config.Config;
 import com.blocklogic.realfilingreborn.item.custom.FluidCanisterItem;
 import com.blocklogic.realfilingreborn.screen.custom.FluidCabinetMenu;
 import com.blocklogic.realfilingreborn.util.FluidHelper;
 import com.mojang.serialization.MapCodec;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
-import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.ItemInteractionResult;
 import net.minecraft.world.SimpleMenuProvider;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.BucketItem;
-import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.item.context.BlockPlaceContext;
@@ -81,16 +82,18 @@ public class FluidCabinetBlock extends BaseEntityBlock {
         return new FluidCabinetBlockEntity(blockPos, blockState);
     }
 
+    @Override
+    protected void tick(BlockState state, ServerLevel level, BlockPos pos, RandomSource random) {
+        if (level.getBlockEntity(pos) instanceof FluidCabinetBlockEntity blockEntity) {
+            blockEntity.flushClientSync();
+        }
+    }
+
     @Override
     public void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean movedByPiston) {
         if (state.getBlock() != newState.getBlock()) {
             if (level.getBlockEntity(pos) instanceof FluidCabinetBlockEntity fluidCabinetBlockEntity) {
-                BlockPos controllerPos = fluidCabinetBlockEntity.getControllerPos();
-                if (controllerPos != null) {
-                    if (level.getBlockEntity(controllerPos) instanceof FilingIndexBlockEntity indexEntity) {
-                        indexEntity.removeCabinet(pos);
-                    }
-                }
+                FilingIndexBlockEntity.unlinkCabinet(level, pos, fluidCabinetBlockEntity.getControllerPos());
 
                 fluidCabinetBlockEntity.drops();
                 level.updateNeighbourForOutputSignal(pos, this);
@@ -145,8 +148,7 @@ public class FluidCabinetBlock extends BaseEntityBlock {
                         heldItem.shrink(1);
                         level.playSound(null, pos, SoundEvents.ITEM_PICKUP, SoundSource.BLOCKS, 1f, 2f);
 
-                        level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-                        fluidCabinetBlockEntity.setChanged();
+                        fluidCabinetBlockEntity.notifyCanisterContentsChanged();
                         return ItemInteractionResult.SUCCESS;
                     }
                 }
@@ -183,12 +185,11 @@ public class FluidCabinetBlock extends BaseEntityBlock {
                                 }
 
                                 level.playSound(null, pos, SoundEvents.BUCKET_EMPTY, SoundSource.BLOCKS, 1f, 1.5f);
-                                level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-                                fluidCabinetBlockEntity.setChanged();
+                                fluidCabinetBlockEntity.notifyCanisterContentsChanged();
                                 return ItemInteractionResult.SUCCESS;
                             } else if (contents.storedFluidId().get().equals(fluidId)) {
-                                int maxToAdd = Integer.MAX_VALUE - contents.amount();
-                                int toAdd = Math.min(1000, maxToAdd);
+                                long maxToAdd = Config.getMaxCanisterStorage() - contents.amount();
+                                int toAdd = (int) Math.min(1000, maxToAdd);
 
                                 if (toAdd >= 1000) {
                                     FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
@@ -204,8 +205,7 @@ public class FluidCabinetBlock extends BaseEntityBlock {
                                     }
 
                                     level.playSound(null, pos, SoundEvents.BUCKET_EMPTY, SoundSource.BLOCKS, 1f, 1.5f);
-                                    level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-                                    fluidCabinetBlockEntity.setChanged();
+                                    fluidCabinetBlockEntity.notifyCanisterContentsChanged();
                                     return ItemInteractionResult.SUCCESS;
                                 }
                             }
@@ -303,32 +303,9 @@ public class FluidCabinetBlock extends BaseEntityBlock {
         }
 
         level.playSound(null, pos, SoundEvents.BUCKET_FILL, SoundSource.BLOCKS, 1f, 1.5f);
-        level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
-        blockEntity.setChanged();
+        blockEntity.notifyCanisterContentsChanged();
 
         player.displayClientMessage(Component.translatable("message.realfilingreborn.fluid_extracted"), true);
         return ItemInteractionResult.SUCCESS;
     }
-
-    private ItemStack getBucketForFluid(ResourceLocation fluidId) {
-        if (fluidId.equals(Fluids.WATER.builtInRegistryHolder().key().location())) {
-            return new ItemStack(Items.WATER_BUCKET);
-        } else if (fluidId.equals(Fluids.LAVA.builtInRegistryHolder().key().location())) {
-            return new ItemStack(Items.LAVA_BUCKET);
-        }
-
-        try {
-            Fluid fluid = BuiltInRegistries.FLUID.get(fluidId);
-            if (fluid != null && fluid != Fluids.EMPTY) {
-                for (Item item : BuiltInRegistries.ITEM) {
-                    if (item instanceof BucketItem bucketItem && bucketItem.content == fluid) {
-                        return new ItemStack(item);
-                    }
-                }
-            }
-        } catch (Exception e) {
-        }
-
-        return ItemStack.EMPTY;
-    }
 }
\ No newline at end of file
@@ -1,9 +1,14 @@
 package com.blocklogic.realfilingreborn.block.entity;
 
 import com.blocklogic.realfilingreborn.block.custom.FilingCabinetBlock;
+import com.blocklogic.realfilingreborn.capability.ItemRouteKey;
 import com.blocklogic.realfilingreborn.config.Config;
 import com.blocklogic.realfilingreborn.item.custom.*;
+import com.blocklogic.realfilingreborn.network.FolderCountSyncPacket;
+import com.blocklogic.realfilingreborn.network.NBTFolderSyncPacket;
 import com.blocklogic.realfilingreborn.screen.custom.FilingCabinetMenu;
+import com.blocklogic.realfilingreborn.util.CabinetSpatialIndex;
+import com.blocklogic.realfilingreborn.util.LazyItemStackHandler;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
@@ -12,9 +17,11 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.Containers;
 import net.minecraft.world.MenuProvider;
 import net.minecraft.world.SimpleContainer;
@@ -26,11 +33,12 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.alchemy.PotionContents;
 import net.minecraft.world.item.component.ItemLore;
 import net.minecraft.world.item.enchantment.ItemEnchantments;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.neoforged.neoforge.items.IItemHandler;
-import net.neoforged.neoforge.items.ItemStackHandler;
+import net.neoforged.neoforge.network.PacketDistributor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -40,19 +48,37 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
 
     @Nullable
     private BlockPos controllerPos = null;
+    private boolean clientSyncPending = false;
 
-    public final ItemStackHandler inventory = new ItemStackHandler(5) {
+    public final LazyItemStackHandler inventory = new LazyItemStackHandler(5) {
         @Override
         protected void onContentsChanged(int slot) {
             setChanged();
 
             if (level != null && !level.isClientSide()) {
-                level.sendBlockUpdated(getBlockPos(), getBlockState(), getBlockState(), 3);
+                requestClientSync();
+                notifyController();
+            }
+        }
+
+        @Override
+        protected void onSlotDecoded(int slot) {
+            if (level != null && !level.isClientSide()) {
+                syncedFolders[slot] = captureFolder(slot);
+                routeKeys[slot] = getItemRouteKey(slot);
+
+                FilingIndexBlockEntity index = getLoadedController();
+                if (index != null) {
+                    index.updateItemRoute(getBlockPos(), slot, routeKeys[slot]);
+                }
             }
         }
     };
 
     private final Map<Direction, IItemHandler> handlers = new HashMap<>();
+    private final ItemRouteKey[] routeKeys = new ItemRouteKey[5];
+    private final SyncedFolder[] syncedFolders = new SyncedFolder[5];
+    private static final int MAX_SYNC_APPEND = 256;
 
     public FilingCabinetBlockEntity(BlockPos pos, BlockState blockState) {
         super(ModBlockEntities.FILING_CABINET_BE.get(), pos, blockState);
@@ -109,15 +135,212 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
         return new FilingCabinetMenu(i, inventory, this);
     }
 
-    private void notifyFolderContentsChanged() {
+    public void notifyFolderContentsChanged() {
         if (level != null && !level.isClientSide()) {
-            level.sendBlockUpdated(getBlockPos(), getBlockState(), getBlockState(), Block.UPDATE_CLIENTS);
             setChanged();
+            notifyController();
+            requestClientSync();
+        }
+    }
+
+    private void requestClientSync() {
+        if (!clientSyncPending && level != null && !level.isClientSide()) {
+            clientSyncPending = true;
+            level.scheduleTick(getBlockPos(), getBlockState().getBlock(), Config.getCabinetSyncInterval());
+        }
+    }
+
+    public void flushClientSync() {
+        if (!clientSyncPending || !(level instanceof ServerLevel serverLevel)) {
+            return;
+        }
+        clientSyncPending = false;
+
+        List<CustomPacketPayload> deltas = new ArrayList<>();
+        SyncedFolder[] current = new SyncedFolder[syncedFolders.length];
+        boolean fullUpdate = false;
+
+        for (int slot = 0; slot < syncedFolders.length; slot++) {
+            if (inventory.isEncoded(slot)) {
+                current[slot] = syncedFolders[slot];
+                continue;
+            }
+
+            current[slot] = captureFolder(slot);
+            SyncedFolder previous = syncedFolders[slot];
+
+            if (previous == null || previous.folderStack() != current[slot].folderStack()
+                    || !previous.storedItemId().equals(current[slot].storedItemId())) {
+                fullUpdate = true;
+                continue;
+            }
+
+            if (current[slot].nbt()) {
+                List<NBTFilingFolderItem.SerializedItemStack> before = previous.storedItems();
+                List<NBTFilingFolderItem.SerializedItemStack> after = current[slot].storedItems();
+
+                int keepCount = 0;
+                int limit = Math.min(before.size(), after.size());
+                while (keepCount < limit && before.get(keepCount) == after.get(keepCount)) {
+                    keepCount++;
+                }
+
+                if (keepCount == before.size() && keepCount == after.size()) {
+                    continue;
+                }
+
+                if (after.size() - keepCount > MAX_SYNC_APPEND) {
+                    fullUpdate = true;
+                    continue;
+                }
+
+                deltas.add(new NBTFolderSyncPacket(getBlockPos(), slot, keepCount, List.copyOf(after.subList(keepCount, after.size()))));
+            } else if (previous.count() != current[slot].count()) {
+                deltas.add(new FolderCountSyncPacket(getBlockPos(), slot, current[slot].count()));
+            }
+        }
+
+        System.arraycopy(current, 0, syncedFolders, 0, current.length);
+
+        if (fullUpdate) {
+            level.sendBlockUpdated(getBlockPos(), getBlockState(), getBlockState(), Block.UPDATE_CLIENTS);
+            return;
+        }
+
+        ChunkPos chunkPos = new ChunkPos(getBlockPos());
+        for (CustomPacketPayload delta : deltas) {
+            PacketDistributor.sendToPlayersTrackingChunk(serverLevel, chunkPos, delta);
+        }
+    }
+
+    private SyncedFolder captureFolder(int slot) {
+        ItemStack folderStack = inventory.getStackInSlot(slot);
+
+        if (folderStack.getItem() instanceof NBTFilingFolderItem) {
+            NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
+            if (contents != null) {
+                return new SyncedFolder(folderStack, true, contents.storedItemId(), contents.totalCount(), contents.storedItems());
+            }
+        } else if (folderStack.getItem() instanceof FilingFolderItem) {
+            FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+            if (contents != null) {
+                return new SyncedFolder(folderStack, false, contents.storedItemId(), contents.count(), List.of());
+            }
+        }
+
+        return new SyncedFolder(folderStack, false, Optional.empty(), 0, List.of());
+    }
+
+    public void applyFolderCountSync(int slot, long count) {
+        if (slot < 0 || slot >= inventory.getSlots()) return;
+
+        ItemStack folderStack = inventory.getStackInSlot(slot);
+        FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+        if (contents != null) {
+            folderStack.set(FilingFolderItem.FOLDER_CONTENTS.value(), new FilingFolderItem.FolderContents(contents.storedItemId(), count));
+        }
+    }
+
+    public void applyNBTFolderSync(int slot, int keepCount, List<NBTFilingFolderItem.SerializedItemStack> appended) {
+        if (slot < 0 || slot >= inventory.getSlots()) return;
+
+        ItemStack folderStack = inventory.getStackInSlot(slot);
+        NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
+        if (contents == null) return;
+
+        folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withTail(keepCount, appended));
+    }
+
+    @Nullable
+    public ItemRouteKey getItemRouteKey(int slot) {
+        CompoundTag encodedFolder = inventory.getEncoded(slot);
+        if (encodedFolder != null) {
+            return ItemRouteKey.forEncodedFolder(encodedFolder);
+        }
+        return ItemRouteKey.forFolder(inventory.getStackInSlot(slot));
+    }
+
+    private void notifyController() {
+        FilingIndexBlockEntity index = getLoadedController();
+        if (index != null) {
+            index.markCabinetChanged(getBlockPos());
+        }
+
+        for (int slot = 0; slot < routeKeys.length; slot++) {
+            if (inventory.isEncoded(slot)) continue;
+
+            ItemRouteKey key = getItemRouteKey(slot);
+            if (!Objects.equals(key, routeKeys[slot])) {
+                routeKeys[slot] = key;
+                if (index != null) {
+                    index.updateItemRoute(getBlockPos(), slot, key);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private FilingIndexBlockEntity getLoadedController() {
+        if (controllerPos == null || level == null || level.isClientSide() || !level.isLoaded(controllerPos)) {
+            return null;
+        }
+        return level.getBlockEntity(controllerPos) instanceof FilingIndexBlockEntity index ? index : null;
+    }
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+
+        if (level != null && !level.isClientSide()) {
+            CabinetSpatialIndex spatialIndex = CabinetSpatialIndex.get(level);
+            if (spatialIndex != null) {
+                spatialIndex.add(getBlockPos());
+            }
+
+            FilingIndexBlockEntity index = getLoadedController();
+            if (index != null) {
+                index.markCabinetChanged(getBlockPos());
+            }
+
+            for (int slot = 0; slot < routeKeys.length; slot++) {
+                if (!inventory.isEncoded(slot)) {
+                    syncedFolders[slot] = captureFolder(slot);
+                }
+
+                routeKeys[slot] = getItemRouteKey(slot);
+                if (index != null) {
+                    index.updateItemRoute(getBlockPos(), slot, routeKeys[slot]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+
+        CabinetSpatialIndex spatialIndex = CabinetSpatialIndex.get(level);
+        if (spatialIndex != null) {
+            spatialIndex.remove(getBlockPos());
+        }
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+
+        if (level != null && !level.isClientSide()) {
+            FilingIndexBlockEntity index = getLoadedController();
+            if (index != null) {
+                index.markCabinetChanged(getBlockPos());
+            }
         }
     }
 
     public void setControllerPos(BlockPos pos) {
+        notifyController();
         this.controllerPos = pos;
+        notifyController();
         setChanged();
         if (level != null && !level.isClientSide()) {
             level.sendBlockUpdated(getBlockPos(), getBlockState(), getBlockState(), 3);
@@ -125,6 +348,7 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
     }
 
     public void clearControllerPos() {
+        notifyController();
         this.controllerPos = null;
         setChanged();
         if (level != null && !level.isClientSide()) {
@@ -141,6 +365,9 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
         return controllerPos != null;
     }
 
+    private record SyncedFolder(ItemStack folderStack, boolean nbt, Optional<ResourceLocation> storedItemId, long count,
+                                List<NBTFilingFolderItem.SerializedItemStack> storedItems) {}
+
     private static class FilingCabinetItemHandler implements IItemHandler {
         private final FilingCabinetBlockEntity cabinet;
         private final Direction side;
@@ -173,7 +400,7 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                 ResourceLocation itemId = contents.storedItemId().get();
                 Item item = BuiltInRegistries.ITEM.get(itemId);
 
-                return new ItemStack(item, contents.count());
+                return new ItemStack(item, (int) Math.min(contents.count(), Integer.MAX_VALUE));
             }
             else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
                 NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
@@ -184,7 +411,7 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                 if (!contents.storedItems().isEmpty()) {
                     NBTFilingFolderItem.SerializedItemStack serializedItem = contents.storedItems().get(0);
                     ItemStack firstItem = serializedItem.stack().copy();
-                    firstItem.setCount(contents.storedItems().size());
+                    firstItem.setCount(contents.totalCount());
                     return firstItem;
                 }
             }
@@ -223,8 +450,8 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                                 continue;
                             }
 
-                            int maxToAdd = Config.getMaxFolderStorage() - contents.count();
-                            int toAdd = Math.min(stack.getCount(), maxToAdd);
+                            long maxToAdd = Config.getMaxFolderStorage() - contents.count();
+                            int toAdd = (int) Math.min(stack.getCount(), maxToAdd);
 
                             if (toAdd <= 0) {
                                 continue;
@@ -267,28 +494,15 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
 
                             if (hasNBT) {
                                 if (contents.storedItems() != null &&
-                                        contents.storedItems().size() >= Config.getMaxNBTFolderStorage()) {
+                                        contents.totalCount() >= Config.getMaxNBTFolderStorage()) {
                                     return stack;
                                 }
 
                                 if (!simulate) {
-                                    List<NBTFilingFolderItem.SerializedItemStack> newItems =
-                                            new ArrayList<>(contents.storedItems() != null ? contents.storedItems() : new ArrayList<>());
-
-                                    int availableSpace = Config.getMaxNBTFolderStorage() - newItems.size();
+                                    int availableSpace = Config.getMaxNBTFolderStorage() - contents.totalCount();
                                     int itemsToAdd = Math.min(stack.getCount(), availableSpace);
 
-                                    for (int count = 0; count < itemsToAdd; count++) {
-                                        ItemStack singleItem = stack.copy();
-                                        singleItem.setCount(1);
-                                        newItems.add(new NBTFilingFolderItem.SerializedItemStack(singleItem));
-                                    }
-
-                                    NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                                            contents.storedItemId(),
-                                            newItems
-                                    );
-                                    folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
+                                    folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withAppended(stack, itemsToAdd));
                                     cabinet.notifyFolderContentsChanged();
 
                                     if (itemsToAdd < stack.getCount()) {
@@ -327,7 +541,7 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                     ResourceLocation newItemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
 
                     if (!simulate) {
-                        int toAdd = Math.min(stack.getCount(), Config.getMaxFolderStorage());
+                        int toAdd = (int) Math.min(stack.getCount(), Config.getMaxFolderStorage());
                         FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
                                 Optional.of(newItemId),
                                 toAdd
@@ -348,12 +562,12 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                     return stack;
                 }
 
-                int maxToAdd;
+                long maxToAdd;
                 if (contents.count() > Config.getMaxFolderStorage() - 1000) {
                     return stack;
                 }
                 maxToAdd = Config.getMaxFolderStorage() - contents.count();
-                int toAdd = Math.min(stack.getCount(), maxToAdd);
+                int toAdd = (int) Math.min(stack.getCount(), maxToAdd);
 
                 if (toAdd <= 0) {
                     return stack;
@@ -379,7 +593,7 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                 }
 
                 if (contents.storedItems() != null &&
-                        contents.storedItems().size() >= Config.getMaxNBTFolderStorage()) {
+                        contents.totalCount() >= Config.getMaxNBTFolderStorage()) {
                     return stack;
                 }
 
@@ -391,22 +605,10 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                     ResourceLocation newItemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
 
                     if (!simulate) {
-                        List<NBTFilingFolderItem.SerializedItemStack> newItems = new ArrayList<>();
-
                         int availableSpace = Config.getMaxNBTFolderStorage();
                         int itemsToAdd = Math.min(stack.getCount(), availableSpace);
 
-                        for (int count = 0; count < itemsToAdd; count++) {
-                            ItemStack singleItem = stack.copy();
-                            singleItem.setCount(1);
-                            newItems.add(new NBTFilingFolderItem.SerializedItemStack(singleItem));
-                        }
-
-                        NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                                Optional.of(newItemId),
-                                newItems
-                        );
-                        folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
+                        folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withAppended(newItemId, stack, itemsToAdd));
                         cabinet.notifyFolderContentsChanged();
 
                         if (itemsToAdd < stack.getCount()) {
@@ -431,23 +633,10 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                 }
 
                 if (!simulate) {
-                    List<NBTFilingFolderItem.SerializedItemStack> newItems =
-                            new ArrayList<>(contents.storedItems() != null ? contents.storedItems() : new ArrayList<>());
-
-                    int availableSpace = Config.getMaxNBTFolderStorage() - newItems.size();
+                    int availableSpace = Config.getMaxNBTFolderStorage() - contents.totalCount();
                     int itemsToAdd = Math.min(stack.getCount(), availableSpace);
 
-                    for (int count = 0; count < itemsToAdd; count++) {
-                        ItemStack singleItem = stack.copy();
-                        singleItem.setCount(1);
-                        newItems.add(new NBTFilingFolderItem.SerializedItemStack(singleItem));
-                    }
-
-                    NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                            contents.storedItemId(),
-                            newItems
-                    );
-                    folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
+                    folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withAppended(stack, itemsToAdd));
                     cabinet.notifyFolderContentsChanged();
 
                     if (itemsToAdd < stack.getCount()) {
@@ -504,7 +693,7 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
 
                 ItemStack result = new ItemStack(item, 1);
                 int maxStackSize = item.getMaxStackSize(result);
-                int extractAmount = Math.min(Math.min(contents.count(), amount), maxStackSize);
+                int extractAmount = (int) Math.min(Math.min(contents.count(), amount), maxStackSize);
 
                 if (extractAmount <= 0) {
                     return ItemStack.EMPTY;
@@ -513,7 +702,7 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                 result.setCount(extractAmount);
 
                 if (!simulate) {
-                    int newCount = contents.count() - extractAmount;
+                    long newCount = contents.count() - extractAmount;
                     FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
                             contents.storedItemId(),
                             newCount
@@ -530,31 +719,17 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
                     return ItemStack.EMPTY;
                 }
 
-                List<NBTFilingFolderItem.SerializedItemStack> items = new ArrayList<>(contents.storedItems());
-                int extractAmount = Math.min(amount, items.size());
+                ItemStack extracted = contents.items().last().stack().copy();
+                int actualExtract = Math.min(Math.min(amount, contents.items().last().count()), extracted.getMaxStackSize());
 
-                if (extractAmount <= 0) {
+                if (actualExtract <= 0) {
                     return ItemStack.EMPTY;
                 }
 
-                NBTFilingFolderItem.SerializedItemStack serializedItem = items.get(items.size() - 1);
-                ItemStack extracted = serializedItem.stack().copy();
-
-                int actualExtract = extracted.isStackable() ? extractAmount : 1;
                 extracted.setCount(actualExtract);
 
                 if (!simulate) {
-                    for (int i = 0; i < actualExtract; i++) {
-                        if (!items.isEmpty()) {
-                            items.remove(items.size() - 1);
-                        }
-                    }
-
-                    NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                            contents.storedItemId(),
-                            items
-                    );
-                    folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
+                    folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withoutLast(actualExtract));
                     cabinet.notifyFolderContentsChanged();
                 }
 
@@ -570,7 +745,7 @@ public class FilingCabinetBlockEntity extends BlockEntity implements MenuProvide
             if (folderStack.getItem() instanceof NBTFilingFolderItem) {
                 return Config.getMaxNBTFolderStorage();
             }
-            return Config.getMaxFolderStorage();
+            return (int) Math.min(Config.getMaxFolderStorage(), Integer.MAX_VALUE);
         }
 
         @Override
@@ -1,19 +1,29 @@
 package com.blocklogic.realfilingreborn.block.entity;
 
 import com.blocklogic.realfilingreborn.block.custom.FilingIndexBlock;
+import com.blocklogic.realfilingreborn.capability.FilingIndexAggregatedFluidHandler;
+import com.blocklogic.realfilingreborn.capability.FilingIndexAggregatedItemHandler;
 import com.blocklogic.realfilingreborn.capability.FilingIndexFluidHandler;
 import com.blocklogic.realfilingreborn.capability.FilingIndexItemHandler;
+import com.blocklogic.realfilingreborn.capability.FilingIndexStorage;
+import com.blocklogic.realfilingreborn.capability.IFilingIndexStorage;
+import com.blocklogic.realfilingreborn.capability.FluidRouteKey;
+import com.blocklogic.realfilingreborn.capability.ItemRouteKey;
 import com.blocklogic.realfilingreborn.config.Config;
 import com.blocklogic.realfilingreborn.item.custom.DiamondRangeUpgrade;
 import com.blocklogic.realfilingreborn.item.custom.IronRangeUpgrade;
 import com.blocklogic.realfilingreborn.item.custom.NetheriteRangeUpgrade;
 import com.blocklogic.realfilingreborn.screen.custom.FilingIndexMenu;
+import com.blocklogic.realfilingreborn.util.CabinetSpatialIndex;
+import com.blocklogic.realfilingreborn.util.IndexNetworkRegistry;
+import com.blocklogic.realfilingreborn.util.RoutingTable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.LongTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
@@ -25,6 +35,7 @@ import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
@@ -34,23 +45,50 @@ import net.neoforged.neoforge.items.ItemStackHandler;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider {
     private final Set<BlockPos> linkedCabinets = ConcurrentHashMap.newKeySet();
     private final ReentrantReadWriteLock cabinetLock = new ReentrantReadWriteLock();
 
+    private final List<BlockPos> cabinetSlots = new ArrayList<>();
+    private final Map<BlockPos, Integer> cabinetSlotIndex = new HashMap<>();
+    private final CabinetSpatialIndex linkedSections = new CabinetSpatialIndex();
+
+    private final RoutingTable<ItemRouteKey> itemRoutes = new RoutingTable<>();
+    private final RoutingTable<FluidRouteKey> fluidRoutes = new RoutingTable<>();
+    private volatile boolean routesDirty = true;
+
     private final Map<Direction, IItemHandler> handlers = new ConcurrentHashMap<>();
     private final Map<Direction, IFluidHandler> fluidHandlers = new ConcurrentHashMap<>();
-    private static final int MAX_HANDLER_CACHE_SIZE = 16;
 
-    private final Map<BlockPos, Boolean> rangeCache = new ConcurrentHashMap<>();
-    private volatile int lastKnownRange = -1;
-    private volatile long lastRangeCacheTime = 0;
-    private static final long RANGE_CACHE_DURATION_MS = 5000;
+    private volatile int aggregatedSides = 0;
+    private final IFilingIndexStorage storage = new FilingIndexStorage(this);
+
+    private final List<BlockPos> activeSlots = new ArrayList<>();
+    private final Map<BlockPos, Integer> activeSlotIndex = new ConcurrentHashMap<>();
+    private volatile int partitionRange = -1;
+
+    private final AtomicLong networkVersion = new AtomicLong();
+    private final Map<BlockPos, Long> cabinetVersions = new ConcurrentHashMap<>();
+    private static final int CHANGE_LOG_SIZE = 256;
+    private final long[] changeLogVersions = new long[CHANGE_LOG_SIZE];
+    private final BlockPos[] changeLogCabinets = new BlockPos[CHANGE_LOG_SIZE];
+    private int changeLogHead = 0;
+
+    private volatile int linkVersion = 0;
+    private volatile int clientCabinetCount = 0;
+    private volatile int clientPositionsVersion = -1;
+    private volatile long lastPositionsRequest = 0;
+    private static final long POSITIONS_REQUEST_INTERVAL_MS = 1000;
 
     private volatile boolean updateScheduled = false;
     private volatile long lastUpdateTime = 0;
@@ -64,7 +102,8 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
 
         @Override
         protected void onContentsChanged(int slot) {
-            clearRangeCache();
+            ensureRangePartition();
+            networkVersion.incrementAndGet();
             setChanged();
 
             if (level != null && !level.isClientSide()) {
@@ -78,41 +117,141 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
     }
 
     public boolean isInRange(BlockPos cabinetPos) {
+        ensureRangePartition();
+        return activeSlotIndex.containsKey(cabinetPos);
+    }
+
+    private void ensureRangePartition() {
         int currentRange = getRange();
-        long currentTime = System.currentTimeMillis();
+        if (currentRange == partitionRange) return;
+
+        cabinetLock.writeLock().lock();
+        try {
+            if (currentRange == partitionRange) return;
 
-        if (currentRange != lastKnownRange || (currentTime - lastRangeCacheTime) > RANGE_CACHE_DURATION_MS) {
-            clearRangeCache();
-            lastKnownRange = currentRange;
-            lastRangeCacheTime = currentTime;
+            if (currentRange > partitionRange) {
+                for (BlockPos cabinetPos : linkedSections.getCabinetsInRange(getBlockPos(), currentRange)) {
+                    activateCabinet(cabinetPos);
+                }
+            } else {
+                for (BlockPos cabinetPos : new ArrayList<>(activeSlots)) {
+                    if (!isWithin(cabinetPos, currentRange)) {
+                        deactivateCabinet(cabinetPos);
+                    }
+                }
+            }
+
+            partitionRange = currentRange;
+            networkVersion.incrementAndGet();
+        } finally {
+            cabinetLock.writeLock().unlock();
         }
+    }
 
-        return rangeCache.computeIfAbsent(cabinetPos, pos -> {
-            double distSq = getBlockPos().distSqr(pos);
-            double rangeSq = (double) currentRange * currentRange;
-            return distSq <= rangeSq;
-        });
+    private boolean isWithin(BlockPos cabinetPos, int range) {
+        return getBlockPos().distSqr(cabinetPos) <= (double) range * range;
     }
 
-    private void clearRangeCache() {
-        rangeCache.clear();
-        lastRangeCacheTime = 0;
+    private void activateCabinet(BlockPos cabinetPos) {
+        if (!activeSlotIndex.containsKey(cabinetPos)) {
+            activeSlotIndex.put(cabinetPos, activeSlots.size());
+            activeSlots.add(cabinetPos);
+        }
+    }
+
+    private void deactivateCabinet(BlockPos cabinetPos) {
+        Integer index = activeSlotIndex.remove(cabinetPos);
+        if (index == null) return;
+
+        int lastIndex = activeSlots.size() - 1;
+        BlockPos lastCabinet = activeSlots.remove(lastIndex);
+        if (index != lastIndex) {
+            activeSlots.set(index, lastCabinet);
+            activeSlotIndex.put(lastCabinet, index);
+        }
+    }
+
+    private void resetRangePartition() {
+        activeSlots.clear();
+        activeSlotIndex.clear();
+        partitionRange = -1;
+    }
+
+    public long getNetworkVersion() {
+        return networkVersion.get();
+    }
+
+    public long getCabinetVersion(BlockPos cabinetPos) {
+        return cabinetVersions.getOrDefault(cabinetPos, 0L);
+    }
+
+    public void markCabinetChanged(BlockPos cabinetPos) {
+        if (linkedCabinets.contains(cabinetPos)) {
+            cabinetVersions.put(cabinetPos, recordCabinetChange(cabinetPos));
+        }
+    }
+
+    private long recordCabinetChange(BlockPos cabinetPos) {
+        synchronized (changeLogVersions) {
+            long version = networkVersion.incrementAndGet();
+            changeLogVersions[changeLogHead] = version;
+            changeLogCabinets[changeLogHead] = cabinetPos;
+            changeLogHead = (changeLogHead + 1) % CHANGE_LOG_SIZE;
+            return version;
+        }
+    }
+
+    @Nullable
+    public Set<BlockPos> getCabinetChangesBetween(long fromVersion, long toVersion) {
+        if (toVersion < fromVersion || toVersion - fromVersion > CHANGE_LOG_SIZE) return null;
+
+        synchronized (changeLogVersions) {
+            Set<BlockPos> changed = new LinkedHashSet<>();
+            int found = 0;
+            for (int i = 1; i <= CHANGE_LOG_SIZE; i++) {
+                int index = (changeLogHead - i + CHANGE_LOG_SIZE) % CHANGE_LOG_SIZE;
+                long version = changeLogVersions[index];
+                if (version <= fromVersion) break;
+                if (version <= toVersion) {
+                    changed.add(changeLogCabinets[index]);
+                    found++;
+                }
+            }
+            return found == toVersion - fromVersion ? changed : null;
+        }
     }
 
     @Nullable
     public IItemHandler getCapabilityHandler(@Nullable Direction side) {
-        if (handlers.size() > MAX_HANDLER_CACHE_SIZE) {
-            handlers.clear();
+        return handlers.computeIfAbsent(side != null ? side : Direction.UP,
+                s -> isAggregated(s) ? new FilingIndexAggregatedItemHandler(this) : new FilingIndexItemHandler(this));
+    }
+
+    public IFilingIndexStorage getStorage(@Nullable Direction side) {
+        return storage;
+    }
+
+    public boolean isAggregated(Direction side) {
+        return (aggregatedSides & (1 << side.get3DDataValue())) != 0;
+    }
+
+    public boolean toggleAggregated(Direction side) {
+        aggregatedSides ^= 1 << side.get3DDataValue();
+        handlers.remove(side);
+        fluidHandlers.remove(side);
+        setChanged();
+
+        if (level != null && !level.isClientSide()) {
+            level.invalidateCapabilities(getBlockPos());
+            scheduleBlockUpdate();
         }
-        return handlers.computeIfAbsent(side != null ? side : Direction.UP, s -> new FilingIndexItemHandler(this));
+        return isAggregated(side);
     }
 
     @Nullable
     public IFluidHandler getFluidCapabilityHandler(@Nullable Direction side) {
-        if (fluidHandlers.size() > MAX_HANDLER_CACHE_SIZE) {
-            fluidHandlers.clear();
-        }
-        return fluidHandlers.computeIfAbsent(side != null ? side : Direction.UP, s -> new FilingIndexFluidHandler(this));
+        return fluidHandlers.computeIfAbsent(side != null ? side : Direction.UP,
+                s -> isAggregated(s) ? new FilingIndexAggregatedFluidHandler(this) : new FilingIndexFluidHandler(this));
     }
 
     public void drops() {
@@ -133,7 +272,10 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
             boolean added = linkedCabinets.add(cabinetPos);
 
             if (added) {
-                clearRangeCache();
+                assignCabinetSlot(cabinetPos);
+                routeCabinet(cabinetPos);
+                registerLink(cabinetPos);
+                cabinetVersions.put(cabinetPos, recordCabinetChange(cabinetPos));
                 setChanged();
 
                 if (level != null && !level.isClientSide()) {
@@ -153,7 +295,11 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
         try {
             boolean wasRemoved = linkedCabinets.remove(cabinetPos);
             if (wasRemoved) {
-                clearRangeCache();
+                releaseCabinetSlot(cabinetPos);
+                itemRoutes.removeCabinet(cabinetPos, 5);
+                fluidRoutes.removeCabinet(cabinetPos, 4);
+                forgetCabinet(cabinetPos);
+                unregisterLink(cabinetPos);
                 setChanged();
 
                 if (level != null && !level.isClientSide()) {
@@ -178,12 +324,15 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
 
             for (BlockPos cabinet : cabinets) {
                 if (linkedCabinets.add(cabinet)) {
+                    assignCabinetSlot(cabinet);
+                    routeCabinet(cabinet);
+                    registerLink(cabinet);
+                    cabinetVersions.put(cabinet, recordCabinetChange(cabinet));
                     changed = true;
                 }
             }
 
             if (changed) {
-                clearRangeCache();
                 setChanged();
 
                 if (level != null && !level.isClientSide()) {
@@ -204,10 +353,20 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
         cabinetLock.writeLock().lock();
         try {
             boolean hadCabinets = !linkedCabinets.isEmpty();
-            boolean changed = linkedCabinets.removeAll(cabinets);
+            boolean changed = false;
+
+            for (BlockPos cabinet : cabinets) {
+                if (linkedCabinets.remove(cabinet)) {
+                    releaseCabinetSlot(cabinet);
+                    itemRoutes.removeCabinet(cabinet, 5);
+                    fluidRoutes.removeCabinet(cabinet, 4);
+                    forgetCabinet(cabinet);
+                    unregisterLink(cabinet);
+                    changed = true;
+                }
+            }
 
             if (changed) {
-                clearRangeCache();
                 setChanged();
 
                 if (level != null && !level.isClientSide()) {
@@ -222,6 +381,191 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
         }
     }
 
+    private void registerLink(BlockPos cabinetPos) {
+        IndexNetworkRegistry registry = IndexNetworkRegistry.get(level);
+        if (registry == null) return;
+
+        BlockPos previous = registry.link(getBlockPos(), cabinetPos);
+        if (previous != null && level.isLoaded(previous) && level.getBlockEntity(previous) instanceof FilingIndexBlockEntity previousIndex) {
+            previousIndex.removeCabinet(cabinetPos);
+        }
+    }
+
+    private void unregisterLink(BlockPos cabinetPos) {
+        IndexNetworkRegistry registry = IndexNetworkRegistry.get(level);
+        if (registry != null) {
+            registry.unlink(getBlockPos(), cabinetPos);
+        }
+    }
+
+    public static void unlinkCabinet(Level level, BlockPos cabinetPos, @Nullable BlockPos knownController) {
+        IndexNetworkRegistry registry = IndexNetworkRegistry.get(level);
+        if (registry == null) return;
+
+        BlockPos controllerPos = registry.getController(cabinetPos);
+        if (controllerPos == null) {
+            controllerPos = knownController;
+        }
+
+        if (controllerPos != null && level.isLoaded(controllerPos) && level.getBlockEntity(controllerPos) instanceof FilingIndexBlockEntity index) {
+            index.removeCabinet(cabinetPos);
+        }
+        registry.unlink(cabinetPos);
+    }
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+
+        IndexNetworkRegistry registry = IndexNetworkRegistry.get(level);
+        if (registry == null) return;
+
+        cabinetLock.writeLock().lock();
+        try {
+            boolean hadCabinets = !linkedCabinets.isEmpty();
+            boolean changed = false;
+
+            if (!registry.hasController(getBlockPos())) {
+                registry.registerController(getBlockPos());
+                for (BlockPos cabinetPos : new ArrayList<>(cabinetSlots)) {
+                    BlockPos owner = registry.getController(cabinetPos);
+                    if (owner != null && !owner.equals(getBlockPos())) {
+                        detachCabinet(cabinetPos);
+                        changed = true;
+                    } else {
+                        registry.link(getBlockPos(), cabinetPos);
+                    }
+                }
+            } else {
+                Set<BlockPos> registered = registry.getCabinets(getBlockPos());
+
+                for (BlockPos cabinetPos : new ArrayList<>(cabinetSlots)) {
+                    if (!registered.contains(cabinetPos)) {
+                        detachCabinet(cabinetPos);
+                        changed = true;
+                    }
+                }
+
+                for (BlockPos cabinetPos : registered) {
+                    if (linkedCabinets.add(cabinetPos)) {
+                        assignCabinetSlot(cabinetPos);
+                        cabinetVersions.put(cabinetPos, recordCabinetChange(cabinetPos));
+                        changed = true;
+                    }
+                }
+            }
+
+            if (changed) {
+                routesDirty = true;
+                setChanged();
+                if (hadCabinets != !linkedCabinets.isEmpty()) {
+                    scheduleConnectedStateUpdate();
+                }
+            }
+        } finally {
+            cabinetLock.writeLock().unlock();
+        }
+    }
+
+    private void detachCabinet(BlockPos cabinetPos) {
+        linkedCabinets.remove(cabinetPos);
+        releaseCabinetSlot(cabinetPos);
+        itemRoutes.removeCabinet(cabinetPos, 5);
+        fluidRoutes.removeCabinet(cabinetPos, 4);
+        forgetCabinet(cabinetPos);
+    }
+
+    private void forgetCabinet(BlockPos cabinetPos) {
+        cabinetVersions.remove(cabinetPos);
+        recordCabinetChange(cabinetPos);
+    }
+
+    private void assignCabinetSlot(BlockPos cabinetPos) {
+        if (!cabinetSlotIndex.containsKey(cabinetPos)) {
+            cabinetSlotIndex.put(cabinetPos, cabinetSlots.size());
+            cabinetSlots.add(cabinetPos);
+            linkedSections.add(cabinetPos);
+            linkVersion++;
+
+            if (partitionRange >= 0 && isWithin(cabinetPos, partitionRange)) {
+                activateCabinet(cabinetPos);
+            }
+        }
+    }
+
+    private void releaseCabinetSlot(BlockPos cabinetPos) {
+        Integer index = cabinetSlotIndex.remove(cabinetPos);
+        if (index == null) return;
+        linkVersion++;
+        deactivateCabinet(cabinetPos);
+        linkedSections.remove(cabinetPos);
+
+        int lastIndex = cabinetSlots.size() - 1;
+        BlockPos lastCabinet = cabinetSlots.remove(lastIndex);
+        if (index != lastIndex) {
+            cabinetSlots.set(index, lastCabinet);
+            cabinetSlotIndex.put(lastCabinet, index);
+        }
+    }
+
+    public void updateItemRoute(BlockPos cabinetPos, int slot, @Nullable ItemRouteKey key) {
+        if (linkedCabinets.contains(cabinetPos)) {
+            itemRoutes.route(cabinetPos, slot, key);
+        }
+    }
+
+    public void updateFluidRoute(BlockPos cabinetPos, int slot, @Nullable FluidRouteKey key) {
+        if (linkedCabinets.contains(cabinetPos)) {
+            fluidRoutes.route(cabinetPos, slot, key);
+        }
+    }
+
+    public Set<RoutingTable.SlotLocation> getItemRoutes(ItemRouteKey key) {
+        rebuildRoutesIfDirty();
+        return itemRoutes.lookup(key);
+    }
+
+    public Set<RoutingTable.SlotLocation> getFluidRoutes(FluidRouteKey key) {
+        rebuildRoutesIfDirty();
+        return fluidRoutes.lookup(key);
+    }
+
+    private void rebuildRoutesIfDirty() {
+        if (routesDirty && level != null && !level.isClientSide()) {
+            cabinetLock.readLock().lock();
+            try {
+                routesDirty = false;
+                for (BlockPos cabinetPos : cabinetSlots) {
+                    routeCabinet(cabinetPos);
+                }
+            } finally {
+                cabinetLock.readLock().unlock();
+            }
+        }
+    }
+
+    @Nullable
+    public BlockEntity getLoadedCabinet(BlockPos cabinetPos) {
+        if (level == null || !level.isLoaded(cabinetPos)) {
+            return null;
+        }
+        return level.getBlockEntity(cabinetPos);
+    }
+
+    private void routeCabinet(BlockPos cabinetPos) {
+        if (level == null || level.isClientSide()) return;
+
+        if (getLoadedCabinet(cabinetPos) instanceof FilingCabinetBlockEntity cabinet) {
+            for (int slot = 0; slot < 5; slot++) {
+                itemRoutes.route(cabinetPos, slot, cabinet.getItemRouteKey(slot));
+            }
+        } else if (getLoadedCabinet(cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet) {
+            for (int slot = 0; slot < 4; slot++) {
+                fluidRoutes.route(cabinetPos, slot, fluidCabinet.getFluidRouteKey(slot));
+            }
+        }
+    }
+
     private void scheduleBlockUpdate() {
         long currentTime = System.currentTimeMillis();
         if (currentTime - lastUpdateTime > MIN_UPDATE_INTERVAL_MS) {
@@ -253,7 +597,16 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
         }
     }
 
+    public List<BlockPos> getCabinetsInRange() {
+        CabinetSpatialIndex spatialIndex = CabinetSpatialIndex.get(level);
+        return spatialIndex != null ? spatialIndex.getCabinetsInRange(getBlockPos(), getRange()) : List.of();
+    }
+
     public int getLinkedCabinetCount() {
+        if (level != null && level.isClientSide()) {
+            return clientCabinetCount;
+        }
+
         cabinetLock.readLock().lock();
         try {
             return linkedCabinets.size();
@@ -262,11 +615,50 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
         }
     }
 
+    public boolean isCabinetLinked(BlockPos cabinetPos) {
+        return linkedCabinets.contains(cabinetPos);
+    }
+
+    public int getActiveCabinetCount() {
+        ensureRangePartition();
+
+        cabinetLock.readLock().lock();
+        try {
+            return activeSlots.size();
+        } finally {
+            cabinetLock.readLock().unlock();
+        }
+    }
+
+    @Nullable
+    public BlockPos getActiveCabinetInSlot(int cabinetSlot) {
+        ensureRangePartition();
+
+        cabinetLock.readLock().lock();
+        try {
+            if (cabinetSlot < 0 || cabinetSlot >= activeSlots.size()) {
+                return null;
+            }
+            return activeSlots.get(cabinetSlot);
+        } finally {
+            cabinetLock.readLock().unlock();
+        }
+    }
+
+    public int getActiveCabinetIndex(BlockPos cabinetPos) {
+        ensureRangePartition();
+        return activeSlotIndex.getOrDefault(cabinetPos, -1);
+    }
+
     public boolean removeCabinetAt(BlockPos cabinetPos) {
         cabinetLock.writeLock().lock();
         try {
             if (linkedCabinets.remove(cabinetPos)) {
-                clearRangeCache();
+                releaseCabinetSlot(cabinetPos);
+                itemRoutes.removeCabinet(cabinetPos, 5);
+                fluidRoutes.removeCabinet(cabinetPos, 4);
+                forgetCabinet(cabinetPos);
+                unregisterLink(cabinetPos);
                 if (level != null && !level.isClientSide()) {
                     if (level.getBlockEntity(cabinetPos) instanceof FilingCabinetBlockEntity cabinet) {
                         cabinet.clearControllerPos();
@@ -297,11 +689,20 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
                     } else if (level.getBlockEntity(cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet) {
                         fluidCabinet.clearControllerPos();
                     }
+                    unregisterLink(cabinetPos);
                 }
             }
             boolean hadCabinets = !linkedCabinets.isEmpty();
             linkedCabinets.clear();
-            clearRangeCache();
+            cabinetSlots.clear();
+            cabinetSlotIndex.clear();
+            linkedSections.clear();
+            itemRoutes.clear();
+            fluidRoutes.clear();
+            cabinetVersions.clear();
+            resetRangePartition();
+            networkVersion.incrementAndGet();
+            linkVersion++;
             setChanged();
 
             if (hadCabinets && level != null && !level.isClientSide()) {
@@ -353,45 +754,120 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
         }
     }
 
-    @Override
-    protected void saveAdditional(CompoundTag tag, HolderLookup.Provider registries) {
-        super.saveAdditional(tag, registries);
-        tag.put("inventory", inventory.serializeNBT(registries));
+    public int getLinkVersion() {
+        return linkVersion;
+    }
 
+    public long[] getPackedLinkedCabinets() {
         cabinetLock.readLock().lock();
         try {
-            ListTag cabinetList = new ListTag();
-            for (BlockPos cabinetPos : linkedCabinets) {
-                cabinetList.add(LongTag.valueOf(cabinetPos.asLong()));
+            long[] packed = new long[cabinetSlots.size()];
+            for (int i = 0; i < packed.length; i++) {
+                packed[i] = cabinetSlots.get(i).asLong();
             }
-            tag.put("linkedCabinets", cabinetList);
+            return packed;
         } finally {
             cabinetLock.readLock().unlock();
         }
     }
 
+    public boolean needsLinkedCabinetPositions() {
+        if (clientPositionsVersion == linkVersion) {
+            return false;
+        }
+
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lastPositionsRequest < POSITIONS_REQUEST_INTERVAL_MS) {
+            return false;
+        }
+        lastPositionsRequest = currentTime;
+        return true;
+    }
+
+    public void applyLinkedCabinetPositions(int version, long[] positions) {
+        cabinetLock.writeLock().lock();
+        try {
+            linkedCabinets.clear();
+            cabinetSlots.clear();
+            cabinetSlotIndex.clear();
+            linkedSections.clear();
+            resetRangePartition();
+            for (long posLong : positions) {
+                BlockPos cabinetPos = BlockPos.of(posLong);
+                if (linkedCabinets.add(cabinetPos)) {
+                    cabinetSlotIndex.put(cabinetPos, cabinetSlots.size());
+                    cabinetSlots.add(cabinetPos);
+                    linkedSections.add(cabinetPos);
+                }
+            }
+            clientPositionsVersion = version;
+        } finally {
+            cabinetLock.writeLock().unlock();
+        }
+    }
+
+    private void saveShared(CompoundTag tag, HolderLookup.Provider registries) {
+        tag.put("inventory", inventory.serializeNBT(registries));
+        tag.putInt("aggregatedSides", aggregatedSides);
+    }
+
+    @Override
+    protected void saveAdditional(CompoundTag tag, HolderLookup.Provider registries) {
+        super.saveAdditional(tag, registries);
+        saveShared(tag, registries);
+        tag.putLongArray("linkedCabinets", getPackedLinkedCabinets());
+    }
+
     @Override
     protected void loadAdditional(CompoundTag tag, HolderLookup.Provider registries) {
         super.loadAdditional(tag, registries);
         inventory.deserializeNBT(registries, tag.getCompound("inventory"));
+        aggregatedSides = tag.getInt("aggregatedSides");
+        handlers.clear();
+        fluidHandlers.clear();
+
+        if (tag.contains("linkedCabinetCount")) {
+            clientCabinetCount = tag.getInt("linkedCabinetCount");
+            linkVersion = tag.getInt("linkVersion");
+            return;
+        }
 
         cabinetLock.writeLock().lock();
         try {
             linkedCabinets.clear();
-            clearRangeCache();
-            if (tag.contains("linkedCabinets")) {
-                ListTag cabinetList = tag.getList("linkedCabinets", 4);
+            cabinetSlots.clear();
+            cabinetSlotIndex.clear();
+            linkedSections.clear();
+            itemRoutes.clear();
+            fluidRoutes.clear();
+            routesDirty = true;
+            cabinetVersions.clear();
+            resetRangePartition();
+            networkVersion.incrementAndGet();
+            linkVersion++;
+
+            if (tag.contains("linkedCabinets", Tag.TAG_LONG_ARRAY)) {
+                for (long posLong : tag.getLongArray("linkedCabinets")) {
+                    loadCabinet(BlockPos.of(posLong));
+                }
+            } else if (tag.contains("linkedCabinets", Tag.TAG_LIST)) {
+                ListTag cabinetList = tag.getList("linkedCabinets", Tag.TAG_LONG);
                 for (int i = 0; i < cabinetList.size(); i++) {
-                    long posLong = ((LongTag) cabinetList.get(i)).getAsLong();
-                    BlockPos cabinetPos = BlockPos.of(posLong);
-                    linkedCabinets.add(cabinetPos);
+                    loadCabinet(BlockPos.of(((LongTag) cabinetList.get(i)).getAsLong()));
                 }
             }
+            clientCabinetCount = linkedCabinets.size();
         } finally {
             cabinetLock.writeLock().unlock();
         }
     }
 
+    private void loadCabinet(BlockPos cabinetPos) {
+        if (linkedCabinets.add(cabinetPos)) {
+            assignCabinetSlot(cabinetPos);
+        }
+    }
+
     @Override
     public Component getDisplayName() {
         return Component.translatable("blockentity.realfilingreborn.filing_index_name");
@@ -411,6 +887,10 @@ public class FilingIndexBlockEntity extends BlockEntity implements MenuProvider
 
     @Override
     public CompoundTag getUpdateTag(HolderLookup.Provider pRegistries) {
-        return saveWithoutMetadata(pRegistries);
+        CompoundTag tag = new CompoundTag();
+        saveShared(tag, pRegistries);
+        tag.putInt("linkedCabinetCount", getLinkedCabinetCount());
+        tag.putInt("linkVersion", linkVersion);
+        return tag;
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.blocklogic.realfilingreborn.block.entity;
 
 import com.blocklogic.realfilingreborn.block.custom.FluidCabinetBlock;
+import com.blocklogic.realfilingreborn.capability.FluidRouteKey;
 import com.blocklogic.realfilingreborn.config.Config;
 import com.blocklogic.realfilingreborn.item.custom.FluidCanisterItem;
 import com.blocklogic.realfilingreborn.screen.custom.FluidCabinetMenu;
+import com.blocklogic.realfilingreborn.util.CabinetSpatialIndex;
 import com.blocklogic.realfilingreborn.util.FluidHelper;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -25,6 +27,7 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.material.Fluids;
 import net.neoforged.neoforge.fluids.FluidStack;
 import net.neoforged.neoforge.fluids.capability.IFluidHandler;
 import net.neoforged.neoforge.items.IItemHandler;
@@ -38,20 +41,27 @@ public class FluidCabinetBlockEntity extends BlockEntity implements MenuProvider
 
     @Nullable
     private BlockPos controllerPos = null;
+    private boolean clientSyncPending = false;
 
     public final ItemStackHandler inventory = new ItemStackHandler(4) {
         @Override
         protected void onContentsChanged(int slot) {
+            canisterViewDirty = true;
             setChanged();
 
             if (level != null && !level.isClientSide()) {
-                level.sendBlockUpdated(getBlockPos(), getBlockState(), getBlockState(), 3);
+                requestClientSync();
+                notifyController();
             }
         }
     };
 
     private final Map<Direction, IItemHandler> handlers = new HashMap<>();
     private final Map<Direction, IFluidHandler> fluidHandlers = new HashMap<>();
+    private final FluidRouteKey[] routeKeys = new FluidRouteKey[4];
+    private final Fluid[] canisterFluids = new Fluid[4];
+    private final long[] canisterAmounts = new long[4];
+    private volatile boolean canisterViewDirty = true;
 
     public FluidCabinetBlockEntity(BlockPos pos, BlockState blockState) {
         super(ModBlockEntities.FLUID_CABINET_BE.get(), pos, blockState);
@@ -98,6 +108,7 @@ public class FluidCabinetBlockEntity extends BlockEntity implements MenuProvider
     protected void loadAdditional(CompoundTag tag, HolderLookup.Provider registries) {
         super.loadAdditional(tag, registries);
         inventory.deserializeNBT(registries, tag.getCompound("inventory"));
+        canisterViewDirty = true;
 
         if (tag.contains("controllerPos")) {
             controllerPos = BlockPos.of(tag.getLong("controllerPos"));
@@ -117,15 +128,187 @@ public class FluidCabinetBlockEntity extends BlockEntity implements MenuProvider
         return new FluidCabinetMenu(i, inventory, this);
     }
 
-    private void notifyCanisterContentsChanged() {
+    public void notifyCanisterContentsChanged() {
+        canisterViewDirty = true;
+
         if (level != null && !level.isClientSide()) {
-            level.sendBlockUpdated(getBlockPos(), getBlockState(), getBlockState(), Block.UPDATE_CLIENTS);
             setChanged();
+            notifyController();
+            requestClientSync();
+        }
+    }
+
+    private void refreshCanisterView() {
+        if (!canisterViewDirty) return;
+        canisterViewDirty = false;
+
+        for (int slot = 0; slot < 4; slot++) {
+            ItemStack canisterStack = inventory.getStackInSlot(slot);
+            FluidCanisterItem.CanisterContents contents = canisterStack.getItem() instanceof FluidCanisterItem
+                    ? canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value())
+                    : null;
+
+            if (contents == null) {
+                canisterFluids[slot] = null;
+                canisterAmounts[slot] = 0;
+            } else if (contents.storedFluidId().isEmpty()) {
+                canisterFluids[slot] = Fluids.EMPTY;
+                canisterAmounts[slot] = 0;
+            } else {
+                Fluid fluid = FluidHelper.getFluidFromId(contents.storedFluidId().get());
+                canisterFluids[slot] = fluid != Fluids.EMPTY ? fluid : null;
+                canisterAmounts[slot] = contents.amount();
+            }
+        }
+    }
+
+    private int fillCanister(int slot, Fluid fluid, int amount, IFluidHandler.FluidAction action) {
+        int toAdd = (int) Math.min(amount, Math.max(0, Config.getMaxCanisterStorage() - canisterAmounts[slot]));
+
+        if (toAdd > 0 && action.execute()) {
+            ItemStack canisterStack = inventory.getStackInSlot(slot);
+            boolean assigned = canisterFluids[slot] == Fluids.EMPTY;
+            ResourceLocation fluidId = assigned
+                    ? FluidHelper.getStillFluid(FluidHelper.getFluidId(fluid))
+                    : FluidHelper.getFluidId(canisterFluids[slot]);
+
+            canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), new FluidCanisterItem.CanisterContents(Optional.of(fluidId), canisterAmounts[slot] + toAdd));
+            if (assigned) {
+                canisterFluids[slot] = FluidHelper.getFluidFromId(fluidId);
+            }
+            canisterAmounts[slot] += toAdd;
+            onCanisterChanged(assigned);
+        }
+
+        return toAdd;
+    }
+
+    private int drainCanister(int slot, int amount, IFluidHandler.FluidAction action) {
+        int toDrain = (int) Math.min(amount, canisterAmounts[slot]);
+
+        if (toDrain > 0 && action.execute()) {
+            ItemStack canisterStack = inventory.getStackInSlot(slot);
+            FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
+            if (contents == null) return 0;
+
+            canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), new FluidCanisterItem.CanisterContents(contents.storedFluidId(), canisterAmounts[slot] - toDrain));
+            canisterAmounts[slot] -= toDrain;
+            onCanisterChanged(false);
+        }
+
+        return toDrain;
+    }
+
+    private void onCanisterChanged(boolean routeChanged) {
+        if (level == null || level.isClientSide()) return;
+
+        setChanged();
+        requestClientSync();
+
+        if (routeChanged) {
+            notifyController();
+        } else {
+            FilingIndexBlockEntity index = getLoadedController();
+            if (index != null) {
+                index.markCabinetChanged(getBlockPos());
+            }
+        }
+    }
+
+    private void requestClientSync() {
+        if (!clientSyncPending && level != null && !level.isClientSide()) {
+            clientSyncPending = true;
+            level.scheduleTick(getBlockPos(), getBlockState().getBlock(), Config.getCabinetSyncInterval());
+        }
+    }
+
+    public void flushClientSync() {
+        if (clientSyncPending && level != null) {
+            clientSyncPending = false;
+            level.sendBlockUpdated(getBlockPos(), getBlockState(), getBlockState(), Block.UPDATE_CLIENTS);
+        }
+    }
+
+    @Nullable
+    public FluidRouteKey getFluidRouteKey(int slot) {
+        return FluidRouteKey.forCanister(inventory.getStackInSlot(slot));
+    }
+
+    private void notifyController() {
+        FilingIndexBlockEntity index = getLoadedController();
+        if (index != null) {
+            index.markCabinetChanged(getBlockPos());
+        }
+
+        for (int slot = 0; slot < routeKeys.length; slot++) {
+            FluidRouteKey key = getFluidRouteKey(slot);
+            if (!Objects.equals(key, routeKeys[slot])) {
+                routeKeys[slot] = key;
+                if (index != null) {
+                    index.updateFluidRoute(getBlockPos(), slot, key);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private FilingIndexBlockEntity getLoadedController() {
+        if (controllerPos == null || level == null || level.isClientSide() || !level.isLoaded(controllerPos)) {
+            return null;
+        }
+        return level.getBlockEntity(controllerPos) instanceof FilingIndexBlockEntity index ? index : null;
+    }
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+
+        if (level != null && !level.isClientSide()) {
+            CabinetSpatialIndex spatialIndex = CabinetSpatialIndex.get(level);
+            if (spatialIndex != null) {
+                spatialIndex.add(getBlockPos());
+            }
+
+            FilingIndexBlockEntity index = getLoadedController();
+            if (index != null) {
+                index.markCabinetChanged(getBlockPos());
+            }
+
+            for (int slot = 0; slot < routeKeys.length; slot++) {
+                routeKeys[slot] = getFluidRouteKey(slot);
+                if (index != null) {
+                    index.updateFluidRoute(getBlockPos(), slot, routeKeys[slot]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+
+        CabinetSpatialIndex spatialIndex = CabinetSpatialIndex.get(level);
+        if (spatialIndex != null) {
+            spatialIndex.remove(getBlockPos());
+        }
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+
+        if (level != null && !level.isClientSide()) {
+            FilingIndexBlockEntity index = getLoadedController();
+            if (index != null) {
+                index.markCabinetChanged(getBlockPos());
+            }
         }
     }
 
     public void setControllerPos(BlockPos pos) {
+        notifyController();
         this.controllerPos = pos;
+        notifyController();
         setChanged();
         if (level != null && !level.isClientSide()) {
             level.sendBlockUpdated(getBlockPos(), getBlockState(), getBlockState(), 3);
@@ -133,6 +316,7 @@ public class FluidCabinetBlockEntity extends BlockEntity implements MenuProvider
     }
 
     public void clearControllerPos() {
+        notifyController();
         this.controllerPos = null;
         setChanged();
         if (level != null && !level.isClientSide()) {
@@ -167,23 +351,17 @@ public class FluidCabinetBlockEntity extends BlockEntity implements MenuProvider
         public FluidStack getFluidInTank(int tank) {
             if (tank < 0 || tank >= 4) return FluidStack.EMPTY;
 
-            ItemStack canisterStack = cabinet.inventory.getStackInSlot(tank);
-            if (canisterStack.getItem() instanceof FluidCanisterItem) {
-                FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
-                if (contents != null && contents.storedFluidId().isPresent()) {
-                    ResourceLocation fluidId = contents.storedFluidId().get();
-                    Fluid fluid = FluidHelper.getFluidFromId(fluidId);
-                    if (fluid != null) {
-                        return new FluidStack(fluid, contents.amount());
-                    }
-                }
+            cabinet.refreshCanisterView();
+            Fluid fluid = cabinet.canisterFluids[tank];
+            if (fluid == null || fluid == Fluids.EMPTY) {
+                return FluidStack.EMPTY;
             }
-            return FluidStack.EMPTY;
+            return new FluidStack(fluid, (int) Math.min(cabinet.canisterAmounts[tank], Integer.MAX_VALUE));
         }
 
         @Override
         public int getTankCapacity(int tank) {
-            return Config.getMaxCanisterStorage();
+            return (int) Math.min(Config.getMaxCanisterStorage(), Integer.MAX_VALUE);
         }
 
         @Override
@@ -193,35 +371,26 @@ public class FluidCabinetBlockEntity extends BlockEntity implements MenuProvider
 
         @Override
         public int fill(FluidStack resource, FluidAction action) {
-            if (resource.isEmpty() || !FluidHelper.isValidFluid(resource.getFluid())) return 0;
+            if (resource.isEmpty()) return 0;
+
+            cabinet.refreshCanisterView();
+            Fluid fluid = resource.getFluid();
+
+            for (int i = 0; i < 4; i++) {
+                Fluid storedFluid = cabinet.canisterFluids[i];
+                if (storedFluid == null || storedFluid == Fluids.EMPTY || !storedFluid.isSame(fluid)) continue;
+
+                int filled = cabinet.fillCanister(i, fluid, resource.getAmount(), action);
+                if (filled > 0) {
+                    return filled;
+                }
+            }
 
-            ResourceLocation fluidId = FluidHelper.getStillFluid(FluidHelper.getFluidId(resource.getFluid()));
+            if (!FluidHelper.isValidFluid(fluid)) return 0;
 
             for (int i = 0; i < 4; i++) {
-                ItemStack canisterStack = cabinet.inventory.getStackInSlot(i);
-
-                if (!canisterStack.isEmpty() && canisterStack.getItem() instanceof FluidCanisterItem) {
-                    FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
-
-                    if (contents != null) {
-                        if (contents.storedFluidId().isEmpty() ||
-                                FluidHelper.areFluidsCompatible(contents.storedFluidId().get(), fluidId)) {
-
-                            int maxToAdd = Config.getMaxCanisterStorage() - contents.amount();
-                            int toAdd = Math.min(resource.getAmount(), maxToAdd);
-
-                            if (toAdd > 0 && action.execute()) {
-                                FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
-                                        Optional.of(fluidId),
-                                        contents.amount() + toAdd
-                                );
-                                canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), newContents);
-                                cabinet.notifyCanisterContentsChanged();
-                            }
-
-                            return toAdd;
-                        }
-                    }
+                if (cabinet.canisterFluids[i] == Fluids.EMPTY) {
+                    return cabinet.fillCanister(i, fluid, resource.getAmount(), action);
                 }
             }
 
@@ -230,33 +399,15 @@ public class FluidCabinetBlockEntity extends BlockEntity implements MenuProvider
 
         @Override
         public FluidStack drain(FluidStack resource, FluidAction action) {
-            if (resource.isEmpty() || !FluidHelper.isValidFluid(resource.getFluid())) return FluidStack.EMPTY;
+            if (resource.isEmpty()) return FluidStack.EMPTY;
 
-            ResourceLocation fluidId = FluidHelper.getStillFluid(FluidHelper.getFluidId(resource.getFluid()));
+            cabinet.refreshCanisterView();
 
             for (int i = 0; i < 4; i++) {
-                ItemStack canisterStack = cabinet.inventory.getStackInSlot(i);
-
-                if (!canisterStack.isEmpty() && canisterStack.getItem() instanceof FluidCanisterItem) {
-                    FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
-
-                    if (contents != null && contents.storedFluidId().isPresent() &&
-                            FluidHelper.areFluidsCompatible(contents.storedFluidId().get(), fluidId)) {
-
-                        int toDrain = Math.min(resource.getAmount(), contents.amount());
-
-                        if (toDrain > 0 && action.execute()) {
-                            FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
-                                    contents.storedFluidId(),
-                                    contents.amount() - toDrain
-                            );
-                            canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), newContents);
-                            cabinet.notifyCanisterContentsChanged();
-                        }
+                Fluid storedFluid = cabinet.canisterFluids[i];
+                if (storedFluid == null || storedFluid == Fluids.EMPTY || cabinet.canisterAmounts[i] <= 0 || !storedFluid.isSame(resource.getFluid())) continue;
 
-                        return new FluidStack(resource.getFluid(), toDrain);
-                    }
-                }
+                return new FluidStack(resource.getFluid(), cabinet.drainCanister(i, resource.getAmount(), action));
             }
 
             return FluidStack.EMPTY;
@@ -264,32 +415,15 @@ public class FluidCabinetBlockEntity extends BlockEntity implements MenuProvider
 
         @Override
         public FluidStack drain(int maxDrain, FluidAction action) {
+            if (maxDrain <= 0) return FluidStack.EMPTY;
+
+            cabinet.refreshCanisterView();
+
             for (int i = 0; i < 4; i++) {
-                ItemStack canisterStack = cabinet.inventory.getStackInSlot(i);
-
-                if (!canisterStack.isEmpty() && canisterStack.getItem() instanceof FluidCanisterItem) {
-                    FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
-
-                    if (contents != null && contents.storedFluidId().isPresent() && contents.amount() > 0) {
-                        ResourceLocation fluidId = contents.storedFluidId().get();
-                        Fluid fluid = FluidHelper.getFluidFromId(fluidId);
-
-                        if (fluid != null) {
-                            int toDrain = Math.min(maxDrain, contents.amount());
-
-                            if (toDrain > 0 && action.execute()) {
-                                FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
-                                        contents.storedFluidId(),
-                                        contents.amount() - toDrain
-                                );
-                                canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), newContents);
-                                cabinet.notifyCanisterContentsChanged();
-                            }
-
-                            return new FluidStack(fluid, toDrain);
-                        }
-                    }
-                }
+                Fluid storedFluid = cabinet.canisterFluids[i];
+                if (storedFluid == null || storedFluid == Fluids.EMPTY || cabinet.canisterAmounts[i] <= 0) continue;
+
+                return new FluidStack(storedFluid, cabinet.drainCanister(i, maxDrain, action));
             }
 
             return FluidStack.EMPTY;
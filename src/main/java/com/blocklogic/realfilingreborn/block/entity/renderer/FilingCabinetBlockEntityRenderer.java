@@ -60,7 +60,7 @@ public class FilingCabinetBlockEntityRenderer implements BlockEntityRenderer<Fil
                     NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
                     if (contents != null && contents.storedItemId().isPresent() && !contents.storedItems().isEmpty()) {
                         storedItem = contents.storedItems().get(0).stack().copy();
-                        countText = String.valueOf(contents.storedItems().size());
+                        countText = String.valueOf(contents.totalCount());
                     }
                 }
 
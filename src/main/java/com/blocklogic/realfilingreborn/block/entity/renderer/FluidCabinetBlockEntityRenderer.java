@@ -122,7 +122,7 @@ public class FluidCabinetBlockEntityRenderer implements BlockEntityRenderer<Flui
         }
     }
 
-    private void renderFluidQuad(Fluid fluid, int amount, float offsetX, float offsetY,
+    private void renderFluidQuad(Fluid fluid, long amount, float offsetX, float offsetY,
                                  float width, float height, PoseStack poseStack,
                                  MultiBufferSource bufferSource, int packedLight) {
         try {
@@ -0,0 +1,95 @@
+package com.blocklogic.realfilingreborn.capability;
+
+import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
+import com.blocklogic.realfilingreborn.block.entity.FluidCabinetBlockEntity;
+import com.blocklogic.realfilingreborn.config.Config;
+import com.blocklogic.realfilingreborn.item.custom.FluidCanisterItem;
+import com.blocklogic.realfilingreborn.util.FluidHelper;
+import com.blocklogic.realfilingreborn.util.RoutingTable;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.neoforged.neoforge.fluids.FluidStack;
+import net.neoforged.neoforge.fluids.capability.IFluidHandler;
+
+import java.util.Optional;
+
+public final class CanisterAccess {
+
+    private CanisterAccess() {}
+
+    public static int fillRouted(FilingIndexBlockEntity indexEntity, FluidStack resource, IFluidHandler.FluidAction action) {
+        if (resource.isEmpty() || !FluidHelper.isValidFluid(resource.getFluid())) {
+            return 0;
+        }
+
+        try {
+            FluidRouteKey routeKey = FluidRouteKey.of(resource);
+
+            int filled = fillLocations(indexEntity, indexEntity.getFluidRoutes(routeKey), resource, routeKey.fluidId(), action);
+            if (filled > 0) {
+                return filled;
+            }
+
+            return fillLocations(indexEntity, indexEntity.getFluidRoutes(FluidRouteKey.UNASSIGNED), resource, routeKey.fluidId(), action);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static int fillLocations(FilingIndexBlockEntity indexEntity, Iterable<RoutingTable.SlotLocation> locations, FluidStack resource, ResourceLocation resourceFluidId, IFluidHandler.FluidAction action) {
+        for (RoutingTable.SlotLocation location : locations) {
+            if (!FolderAccess.isInRange(indexEntity, location.cabinetPos())) continue;
+
+            if (indexEntity.getLoadedCabinet(location.cabinetPos()) instanceof FluidCabinetBlockEntity fluidCabinet && fluidCabinet.isLinkedToController()) {
+                ItemStack canisterStack = fluidCabinet.inventory.getStackInSlot(location.slot());
+                if (canisterStack.getItem() instanceof FluidCanisterItem) {
+                    FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
+                    if (contents != null) {
+                        int maxToAdd = (int) Math.min(resource.getAmount(), Math.max(0, Config.getMaxCanisterStorage() - contents.amount()));
+                        if (maxToAdd <= 0) {
+                            continue;
+                        }
+
+                        if (action.execute()) {
+                            FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
+                                    Optional.of(resourceFluidId),
+                                    contents.amount() + maxToAdd
+                            );
+                            canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), newContents);
+                            fluidCabinet.notifyCanisterContentsChanged();
+                        }
+
+                        return maxToAdd;
+                    }
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    public static int drain(FluidCabinetBlockEntity fluidCabinet, int slot, int amount, IFluidHandler.FluidAction action) {
+        try {
+            ItemStack canisterStack = fluidCabinet.inventory.getStackInSlot(slot);
+            if (!(canisterStack.getItem() instanceof FluidCanisterItem)) return 0;
+
+            FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
+            if (contents == null || contents.amount() <= 0) return 0;
+
+            int toDrain = (int) Math.min(amount, contents.amount());
+
+            if (toDrain > 0 && action.execute()) {
+                FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
+                        contents.storedFluidId(),
+                        contents.amount() - toDrain
+                );
+                canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), newContents);
+                fluidCabinet.notifyCanisterContentsChanged();
+            }
+
+            return toDrain;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.blocklogic.realfilingreborn.capability;
+
+import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
+import com.blocklogic.realfilingreborn.block.entity.FluidCabinetBlockEntity;
+import com.blocklogic.realfilingreborn.config.Config;
+import com.blocklogic.realfilingreborn.item.custom.FluidCanisterItem;
+import com.blocklogic.realfilingreborn.util.FluidHelper;
+import com.blocklogic.realfilingreborn.util.RoutingTable;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.material.Fluids;
+import net.neoforged.neoforge.fluids.FluidStack;
+import net.neoforged.neoforge.fluids.capability.IFluidHandler;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class FilingIndexAggregatedFluidHandler implements IFluidHandler {
+    private final FilingIndexBlockEntity indexEntity;
+
+    private final Map<BlockPos, CabinetSegment> segments = new ConcurrentHashMap<>();
+    private volatile List<AggregatedTank> cachedTanks = List.of();
+    private volatile long cachedNetworkVersion = -1;
+
+    public FilingIndexAggregatedFluidHandler(FilingIndexBlockEntity indexEntity) {
+        this.indexEntity = indexEntity;
+    }
+
+    private List<AggregatedTank> getAggregatedTanks() {
+        long networkVersion = indexEntity.getNetworkVersion();
+        if (cachedNetworkVersion == networkVersion) {
+            return cachedTanks;
+        }
+
+        Map<FluidRouteKey, AggregatedTank> merged = new LinkedHashMap<>();
+
+        int cabinetCount = indexEntity.getActiveCabinetCount();
+        for (int cabinetIndex = 0; cabinetIndex < cabinetCount; cabinetIndex++) {
+            BlockPos cabinetPos = indexEntity.getActiveCabinetInSlot(cabinetIndex);
+            if (cabinetPos == null) continue;
+
+            CanisterSummary[] canisters = getSegment(cabinetPos).canisters();
+            for (int slot = 0; slot < canisters.length; slot++) {
+                CanisterSummary canister = canisters[slot];
+                if (canister == null) continue;
+
+                AggregatedTank tank = merged.get(canister.key());
+                if (tank == null) {
+                    tank = new AggregatedTank(canister.key(), new FluidStack(canister.fluid(), 0), new ArrayList<>());
+                    merged.put(canister.key(), tank);
+                }
+                tank.display().setAmount((int) Math.min((long) tank.display().getAmount() + canister.amount(), Integer.MAX_VALUE));
+                tank.locations().add(new RoutingTable.SlotLocation(cabinetPos, slot));
+            }
+        }
+
+        List<AggregatedTank> tanks = new ArrayList<>(merged.values());
+
+        if (networkVersion == indexEntity.getNetworkVersion()) {
+            cachedTanks = tanks;
+            cachedNetworkVersion = networkVersion;
+        }
+
+        return tanks;
+    }
+
+    private CabinetSegment getSegment(BlockPos cabinetPos) {
+        long cabinetVersion = indexEntity.getCabinetVersion(cabinetPos);
+        CabinetSegment segment = segments.get(cabinetPos);
+        if (segment == null || segment.version() != cabinetVersion) {
+            if (segments.size() > indexEntity.getLinkedCabinetCount()) {
+                segments.keySet().removeIf(pos -> !indexEntity.isCabinetLinked(pos));
+            }
+            segment = new CabinetSegment(cabinetVersion, buildSegment(cabinetPos));
+            segments.put(cabinetPos, segment);
+        }
+        return segment;
+    }
+
+    private CanisterSummary[] buildSegment(BlockPos cabinetPos) {
+        CanisterSummary[] canisters = new CanisterSummary[4];
+
+        if (indexEntity.getLoadedCabinet(cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet && fluidCabinet.isLinkedToController()) {
+            for (int slot = 0; slot < 4; slot++) {
+                ItemStack canisterStack = fluidCabinet.inventory.getStackInSlot(slot);
+
+                if (canisterStack.getItem() instanceof FluidCanisterItem) {
+                    FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
+                    if (contents != null && contents.storedFluidId().isPresent()) {
+                        Fluid fluid = FluidHelper.getFluidFromId(FluidHelper.getStillFluid(contents.storedFluidId().get()));
+                        if (fluid != Fluids.EMPTY) {
+                            canisters[slot] = new CanisterSummary(FluidRouteKey.forCanister(canisterStack), fluid, contents.amount());
+                        }
+                    }
+                }
+            }
+        }
+
+        return canisters;
+    }
+
+    @Override
+    public int getTanks() {
+        return Math.max(getAggregatedTanks().size(), 1);
+    }
+
+    @Override
+    @NotNull
+    public FluidStack getFluidInTank(int tank) {
+        List<AggregatedTank> tanks = getAggregatedTanks();
+        if (tank < 0 || tank >= tanks.size()) {
+            return FluidStack.EMPTY;
+        }
+        return tanks.get(tank).display().copy();
+    }
+
+    @Override
+    public int getTankCapacity(int tank) {
+        List<AggregatedTank> tanks = getAggregatedTanks();
+        if (tank < 0 || tank >= tanks.size()) {
+            return 0;
+        }
+
+        long canisterCapacity = Config.getMaxCanisterStorage();
+        if (canisterCapacity >= Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.min(canisterCapacity * tanks.get(tank).locations().size(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isFluidValid(int tank, @NotNull FluidStack stack) {
+        List<AggregatedTank> tanks = getAggregatedTanks();
+        if (stack.isEmpty() || tank < 0 || tank >= tanks.size()) {
+            return false;
+        }
+        return tanks.get(tank).key().equals(FluidRouteKey.of(stack));
+    }
+
+    @Override
+    public int fill(FluidStack resource, FluidAction action) {
+        return CanisterAccess.fillRouted(indexEntity, resource, action);
+    }
+
+    @Override
+    @NotNull
+    public FluidStack drain(FluidStack resource, FluidAction action) {
+        if (resource.isEmpty() || !FluidHelper.isValidFluid(resource.getFluid())) {
+            return FluidStack.EMPTY;
+        }
+
+        int drained = drainLocations(indexEntity.getFluidRoutes(FluidRouteKey.of(resource)), resource.getAmount(), action);
+        return drained > 0 ? new FluidStack(resource.getFluid(), drained) : FluidStack.EMPTY;
+    }
+
+    @Override
+    @NotNull
+    public FluidStack drain(int maxDrain, FluidAction action) {
+        if (maxDrain <= 0) {
+            return FluidStack.EMPTY;
+        }
+
+        for (AggregatedTank tank : getAggregatedTanks()) {
+            if (tank.display().isEmpty()) continue;
+
+            int drained = drainLocations(tank.locations(), maxDrain, action);
+            if (drained > 0) {
+                return new FluidStack(tank.display().getFluid(), drained);
+            }
+        }
+
+        return FluidStack.EMPTY;
+    }
+
+    private int drainLocations(Iterable<RoutingTable.SlotLocation> locations, int amount, FluidAction action) {
+        int drained = 0;
+
+        for (RoutingTable.SlotLocation location : locations) {
+            if (drained >= amount) break;
+            if (!FolderAccess.isInRange(indexEntity, location.cabinetPos())) continue;
+
+            if (indexEntity.getLoadedCabinet(location.cabinetPos()) instanceof FluidCabinetBlockEntity fluidCabinet && fluidCabinet.isLinkedToController()) {
+                drained += CanisterAccess.drain(fluidCabinet, location.slot(), amount - drained, action);
+            }
+        }
+
+        return drained;
+    }
+
+    private record CanisterSummary(FluidRouteKey key, Fluid fluid, long amount) {}
+
+    private record CabinetSegment(long version, CanisterSummary[] canisters) {}
+
+    private record AggregatedTank(FluidRouteKey key, FluidStack display, List<RoutingTable.SlotLocation> locations) {}
+}
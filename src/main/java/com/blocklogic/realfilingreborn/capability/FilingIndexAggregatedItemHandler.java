@@ -0,0 +1,304 @@
+package com.blocklogic.realfilingreborn.capability;
+
+import com.blocklogic.realfilingreborn.block.entity.FilingCabinetBlockEntity;
+import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
+import com.blocklogic.realfilingreborn.config.Config;
+import com.blocklogic.realfilingreborn.item.custom.FilingFolderItem;
+import com.blocklogic.realfilingreborn.item.custom.NBTFilingFolderItem;
+import com.blocklogic.realfilingreborn.util.RoutingTable;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.items.IItemHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+public class FilingIndexAggregatedItemHandler implements IItemHandler {
+    private final FilingIndexBlockEntity indexEntity;
+    private final Level level;
+
+    private final Map<BlockPos, FolderSummary[]> contributions = new HashMap<>();
+    private final List<AggregatedEntry> slots = new ArrayList<>();
+    private final Map<EntryId, Integer> slotIndex = new HashMap<>();
+    private final PriorityQueue<Integer> freeSlots = new PriorityQueue<>();
+    private long syncedNetworkVersion = -1;
+
+    public FilingIndexAggregatedItemHandler(FilingIndexBlockEntity indexEntity) {
+        this.indexEntity = indexEntity;
+        this.level = indexEntity.getLevel();
+    }
+
+    private void sync() {
+        long networkVersion = indexEntity.getNetworkVersion();
+        if (syncedNetworkVersion == networkVersion) return;
+
+        Set<BlockPos> changed = syncedNetworkVersion < 0 ? null : indexEntity.getCabinetChangesBetween(syncedNetworkVersion, networkVersion);
+        if (changed == null) {
+            resyncAll();
+        } else {
+            for (BlockPos cabinetPos : changed) {
+                refreshCabinet(cabinetPos);
+            }
+        }
+
+        syncedNetworkVersion = networkVersion;
+    }
+
+    private void resyncAll() {
+        Set<BlockPos> active = new HashSet<>();
+        int cabinetCount = indexEntity.getActiveCabinetCount();
+        for (int cabinetIndex = 0; cabinetIndex < cabinetCount; cabinetIndex++) {
+            BlockPos cabinetPos = indexEntity.getActiveCabinetInSlot(cabinetIndex);
+            if (cabinetPos != null) {
+                active.add(cabinetPos);
+            }
+        }
+
+        for (BlockPos cabinetPos : new ArrayList<>(contributions.keySet())) {
+            if (!active.contains(cabinetPos)) {
+                refreshCabinet(cabinetPos);
+            }
+        }
+
+        for (BlockPos cabinetPos : active) {
+            refreshCabinet(cabinetPos);
+        }
+    }
+
+    private void refreshCabinet(BlockPos cabinetPos) {
+        FolderSummary[] previous = contributions.get(cabinetPos);
+        FolderSummary[] current = FolderAccess.isInRange(indexEntity, cabinetPos) ? buildSegment(cabinetPos) : null;
+
+        for (int slot = 0; slot < 5; slot++) {
+            FolderSummary before = previous != null ? previous[slot] : null;
+            FolderSummary after = current != null ? current[slot] : null;
+            if (before == null && after == null) continue;
+
+            RoutingTable.SlotLocation location = new RoutingTable.SlotLocation(cabinetPos, slot);
+            if (before != null && after != null && entryId(before, location).equals(entryId(after, location))) {
+                AggregatedEntry entry = slots.get(slotIndex.get(entryId(after, location)));
+                entry.count += after.count() - before.count();
+                if (after.key().nbt()) {
+                    entry.display = after.display();
+                }
+                updateDisplayCount(entry);
+                continue;
+            }
+
+            if (before != null) {
+                removeContribution(before, location);
+            }
+            if (after != null) {
+                addContribution(after, location);
+            }
+        }
+
+        if (current != null) {
+            contributions.put(cabinetPos, current);
+        } else {
+            contributions.remove(cabinetPos);
+        }
+    }
+
+    private void addContribution(FolderSummary folder, RoutingTable.SlotLocation location) {
+        EntryId id = entryId(folder, location);
+        Integer index = slotIndex.get(id);
+        AggregatedEntry entry;
+
+        if (index == null) {
+            entry = new AggregatedEntry(folder.key(), folder.display());
+            Integer free = freeSlots.poll();
+            if (free != null) {
+                slots.set(free, entry);
+                slotIndex.put(id, free);
+            } else {
+                slotIndex.put(id, slots.size());
+                slots.add(entry);
+            }
+        } else {
+            entry = slots.get(index);
+        }
+
+        entry.count += folder.count();
+        entry.locations.add(location);
+        updateDisplayCount(entry);
+    }
+
+    private void removeContribution(FolderSummary folder, RoutingTable.SlotLocation location) {
+        EntryId id = entryId(folder, location);
+        Integer index = slotIndex.get(id);
+        if (index == null) return;
+
+        AggregatedEntry entry = slots.get(index);
+        entry.count -= folder.count();
+        entry.locations.remove(location);
+
+        if (entry.locations.isEmpty()) {
+            slots.set(index, null);
+            slotIndex.remove(id);
+            freeSlots.add(index);
+        } else {
+            updateDisplayCount(entry);
+        }
+    }
+
+    private static EntryId entryId(FolderSummary folder, RoutingTable.SlotLocation location) {
+        return new EntryId(folder.key(), folder.key().nbt() ? location : null);
+    }
+
+    private static void updateDisplayCount(AggregatedEntry entry) {
+        entry.display.setCount((int) Math.max(1, Math.min(entry.count, Integer.MAX_VALUE)));
+    }
+
+    private FolderSummary[] buildSegment(BlockPos cabinetPos) {
+        FolderSummary[] folders = new FolderSummary[5];
+
+        if (indexEntity.getLoadedCabinet(cabinetPos) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
+            for (int slot = 0; slot < 5; slot++) {
+                ItemStack folderStack = cabinet.inventory.getStackInSlot(slot);
+
+                if (folderStack.getItem() instanceof FilingFolderItem && !(folderStack.getItem() instanceof NBTFilingFolderItem)) {
+                    FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+                    if (contents != null && contents.storedItemId().isPresent() && contents.count() > 0) {
+                        Item item = BuiltInRegistries.ITEM.get(contents.storedItemId().get());
+                        folders[slot] = new FolderSummary(new ItemRouteKey(contents.storedItemId().get(), false), contents.count(), new ItemStack(item));
+                    }
+                } else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
+                    NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
+                    if (contents != null && contents.storedItemId().isPresent() && !contents.storedItems().isEmpty()) {
+                        ItemStack display = contents.items().last().stack().copyWithCount(1);
+                        folders[slot] = new FolderSummary(new ItemRouteKey(contents.storedItemId().get(), true), contents.totalCount(), display);
+                    }
+                }
+            }
+        }
+
+        return folders;
+    }
+
+    @Nullable
+    private AggregatedEntry getEntry(int slot) {
+        return slot >= 0 && slot < slots.size() ? slots.get(slot) : null;
+    }
+
+    @Override
+    public synchronized int getSlots() {
+        sync();
+        return slots.size() + 1;
+    }
+
+    @Override
+    @NotNull
+    public synchronized ItemStack getStackInSlot(int slot) {
+        sync();
+        AggregatedEntry entry = getEntry(slot);
+        return entry != null ? entry.display.copy() : ItemStack.EMPTY;
+    }
+
+    @Override
+    @NotNull
+    public synchronized ItemStack insertItem(int slot, @NotNull ItemStack stack, boolean simulate) {
+        if (stack.isEmpty()) return stack;
+
+        sync();
+        AggregatedEntry entry = getEntry(slot);
+        if (entry == null) {
+            return FolderAccess.insertRouted(indexEntity, stack, simulate);
+        }
+
+        ItemRouteKey routeKey = ItemRouteKey.of(stack);
+        if (!routeKey.equals(entry.key)) return stack;
+
+        ItemStack remaining = stack;
+        for (RoutingTable.SlotLocation location : List.copyOf(entry.locations)) {
+            if (remaining.isEmpty()) break;
+
+            if (indexEntity.getLoadedCabinet(location.cabinetPos()) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
+                remaining = FolderAccess.insert(cabinet, location.slot(), remaining, routeKey.itemId(), routeKey.nbt(), simulate);
+            }
+        }
+
+        return remaining;
+    }
+
+    @Override
+    @NotNull
+    public synchronized ItemStack extractItem(int slot, int amount, boolean simulate) {
+        if (amount <= 0) return ItemStack.EMPTY;
+
+        sync();
+        AggregatedEntry entry = getEntry(slot);
+        if (entry == null) return ItemStack.EMPTY;
+
+        int remaining = Math.min(amount, entry.display.getMaxStackSize());
+        ItemStack extracted = ItemStack.EMPTY;
+
+        for (RoutingTable.SlotLocation location : List.copyOf(entry.locations)) {
+            if (remaining <= 0) break;
+
+            if (indexEntity.getLoadedCabinet(location.cabinetPos()) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
+                ItemStack result = FolderAccess.extract(cabinet, location.slot(), remaining, simulate);
+                if (result.isEmpty()) continue;
+
+                if (extracted.isEmpty()) {
+                    extracted = result;
+                } else {
+                    extracted.grow(result.getCount());
+                }
+                remaining -= result.getCount();
+            }
+        }
+
+        return extracted;
+    }
+
+    @Override
+    public synchronized int getSlotLimit(int slot) {
+        sync();
+        AggregatedEntry entry = getEntry(slot);
+        if (entry == null) return 64;
+
+        if (entry.key.nbt()) {
+            return Config.getMaxNBTFolderStorage();
+        }
+
+        long perFolder = Config.getMaxFolderStorage();
+        int folders = entry.locations.size();
+        if (perFolder > Integer.MAX_VALUE / folders) return Integer.MAX_VALUE;
+        return (int) (perFolder * folders);
+    }
+
+    @Override
+    public synchronized boolean isItemValid(int slot, ItemStack stack) {
+        sync();
+        AggregatedEntry entry = getEntry(slot);
+        return entry == null || entry.key.equals(ItemRouteKey.of(stack));
+    }
+
+    private record FolderSummary(ItemRouteKey key, long count, ItemStack display) {}
+
+    private record EntryId(ItemRouteKey key, @Nullable RoutingTable.SlotLocation location) {}
+
+    private static final class AggregatedEntry {
+        private final ItemRouteKey key;
+        private final Set<RoutingTable.SlotLocation> locations = new LinkedHashSet<>();
+        private ItemStack display;
+        private long count;
+
+        private AggregatedEntry(ItemRouteKey key, ItemStack display) {
+            this.key = key;
+            this.display = display;
+        }
+    }
+}
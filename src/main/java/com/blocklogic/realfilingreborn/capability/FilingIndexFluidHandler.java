@@ -4,152 +4,135 @@ import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
 import com.blocklogic.realfilingreborn.block.entity.FluidCabinetBlockEntity;
 import com.blocklogic.realfilingreborn.item.custom.FluidCanisterItem;
 import com.blocklogic.realfilingreborn.util.FluidHelper;
+import com.blocklogic.realfilingreborn.util.RoutingTable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.material.Fluid;
 import net.neoforged.neoforge.fluids.FluidStack;
 import net.neoforged.neoforge.fluids.capability.IFluidHandler;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FilingIndexFluidHandler implements IFluidHandler {
     private final FilingIndexBlockEntity indexEntity;
     private final Level level;
 
-    private volatile List<FluidTankInfo> cachedFluidTanks = null;
-    private final AtomicLong lastCacheTime = new AtomicLong(0);
-    private final AtomicLong cacheVersion = new AtomicLong(0);
-    private static final long CACHE_DURATION_MS = 500;
-    private static final int MAX_FLUID_TANKS_PER_SCAN = 500;
-
-    private final Map<BlockPos, Boolean> inRangeCache = new ConcurrentHashMap<>();
-    private volatile long lastRangeCacheTime = 0;
-    private static final long RANGE_CACHE_DURATION_MS = 2000;
+    private final Map<BlockPos, CabinetSegment> segments = new ConcurrentHashMap<>();
 
     public FilingIndexFluidHandler(FilingIndexBlockEntity indexEntity) {
         this.indexEntity = indexEntity;
         this.level = indexEntity.getLevel();
     }
 
-    private void notifyUpdate(BlockPos cabinetPos) {
-        if (level != null && !level.isClientSide()) {
-            level.sendBlockUpdated(cabinetPos, level.getBlockState(cabinetPos), level.getBlockState(cabinetPos), Block.UPDATE_CLIENTS);
-            invalidateCache();
+    @Nullable
+    private CabinetSegment getSegment(int cabinetIndex) {
+        BlockPos cabinetPos = indexEntity.getActiveCabinetInSlot(cabinetIndex);
+        if (cabinetPos == null) {
+            return null;
         }
-    }
 
-    public void invalidateCache() {
-        cachedFluidTanks = null;
-        cacheVersion.incrementAndGet();
-        lastCacheTime.set(0);
-    }
-
-    private void invalidateRangeCache() {
-        inRangeCache.clear();
-        lastRangeCacheTime = 0;
+        long cabinetVersion = indexEntity.getCabinetVersion(cabinetPos);
+        CabinetSegment segment = segments.get(cabinetPos);
+        if (segment == null || segment.version() != cabinetVersion) {
+            if (segments.size() > indexEntity.getLinkedCabinetCount()) {
+                segments.keySet().removeIf(pos -> !indexEntity.isCabinetLinked(pos));
+            }
+            segment = new CabinetSegment(cabinetVersion, buildSegment(cabinetPos));
+            segments.put(cabinetPos, segment);
+        }
+        return segment;
     }
 
-    private List<FluidTankInfo> getAllFluidTanks() {
-        long currentTime = System.currentTimeMillis();
-        long currentVersion = cacheVersion.get();
-
-        List<FluidTankInfo> cached = cachedFluidTanks;
-        if (cached != null && (currentTime - lastCacheTime.get()) < CACHE_DURATION_MS) {
-            return cached;
-        }
+    @Nullable
+    private FluidTankInfo getTankInfo(int tank) {
+        if (tank < 0) return null;
 
-        List<FluidTankInfo> tanks = new ArrayList<>();
-        int tankCount = 0;
+        CabinetSegment segment = getSegment(tank / 4);
+        return segment != null ? segment.tanks()[tank % 4] : null;
+    }
 
-        List<BlockPos> cabinets = new ArrayList<>(indexEntity.getLinkedCabinets());
+    private Iterable<FluidTankInfo> storedTanks() {
+        return () -> new Iterator<>() {
+            private final int tankCount = getTanks();
+            private int tank = 0;
+            private FluidTankInfo next = findNext();
+
+            private FluidTankInfo findNext() {
+                while (tank < tankCount) {
+                    FluidTankInfo tankInfo = getTankInfo(tank++);
+                    if (tankInfo != null) {
+                        return tankInfo;
+                    }
+                }
+                return null;
+            }
 
-        for (BlockPos cabinetPos : cabinets) {
-            if (tankCount >= MAX_FLUID_TANKS_PER_SCAN) {
-                break;
+            @Override
+            public boolean hasNext() {
+                return next != null;
             }
 
-            if (!isInRangeCached(cabinetPos)) {
-                continue;
+            @Override
+            public FluidTankInfo next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                FluidTankInfo current = next;
+                next = findNext();
+                return current;
             }
+        };
+    }
 
-            try {
-                if (level.getBlockEntity(cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet && fluidCabinet.isLinkedToController()) {
-                    for (int slot = 0; slot < 4; slot++) {
-                        if (tankCount >= MAX_FLUID_TANKS_PER_SCAN) break;
-
-                        ItemStack canisterStack = fluidCabinet.inventory.getStackInSlot(slot);
-
-                        if (canisterStack.getItem() instanceof FluidCanisterItem) {
-                            FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
-                            if (contents != null && contents.storedFluidId().isPresent() && contents.amount() > 0) {
-                                ResourceLocation fluidId = contents.storedFluidId().get();
-                                Fluid fluid = FluidHelper.getFluidFromId(fluidId);
-                                if (fluid != null) {
-                                    tanks.add(new FluidTankInfo(cabinetPos, slot, new FluidStack(fluid, contents.amount())));
-                                    tankCount++;
-                                }
+    private FluidTankInfo[] buildSegment(BlockPos cabinetPos) {
+        FluidTankInfo[] tanks = new FluidTankInfo[4];
+
+        try {
+            if (indexEntity.getLoadedCabinet(cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet && fluidCabinet.isLinkedToController()) {
+                for (int slot = 0; slot < 4; slot++) {
+                    ItemStack canisterStack = fluidCabinet.inventory.getStackInSlot(slot);
+
+                    if (canisterStack.getItem() instanceof FluidCanisterItem) {
+                        FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
+                        if (contents != null && contents.storedFluidId().isPresent() && contents.amount() > 0) {
+                            ResourceLocation fluidId = contents.storedFluidId().get();
+                            Fluid fluid = FluidHelper.getFluidFromId(fluidId);
+                            if (fluid != null) {
+                                tanks[slot] = new FluidTankInfo(cabinetPos, slot, new FluidStack(fluid, (int) Math.min(contents.amount(), Integer.MAX_VALUE)));
                             }
                         }
                     }
                 }
-            } catch (Exception e) {
-                continue;
             }
-        }
-
-        if (currentVersion == cacheVersion.get()) {
-            cachedFluidTanks = tanks;
-            lastCacheTime.set(currentTime);
+        } catch (Exception e) {
+            return tanks;
         }
 
         return tanks;
     }
 
-    private boolean isInRangeCached(BlockPos cabinetPos) {
-        long currentTime = System.currentTimeMillis();
-
-        if ((currentTime - lastRangeCacheTime) > RANGE_CACHE_DURATION_MS) {
-            invalidateRangeCache();
-            lastRangeCacheTime = currentTime;
-        }
-
-        return inRangeCache.computeIfAbsent(cabinetPos, pos -> {
-            try {
-                return indexEntity.isInRange(pos);
-            } catch (Exception e) {
-                return false;
-            }
-        });
-    }
-
     @Override
     public int getTanks() {
-        try {
-            return getAllFluidTanks().size();
-        } catch (Exception e) {
-            return 0;
-        }
+        return Math.max(indexEntity.getActiveCabinetCount() * 4, 1);
     }
 
     @Override
     @NotNull
     public FluidStack getFluidInTank(int tank) {
         try {
-            List<FluidTankInfo> tanks = getAllFluidTanks();
-            if (tank < 0 || tank >= tanks.size()) {
+            FluidTankInfo tankInfo = getTankInfo(tank);
+            if (tankInfo == null) {
                 return FluidStack.EMPTY;
             }
 
-            return tanks.get(tank).fluidStack.copy();
+            return tankInfo.fluidStack.copy();
         } catch (Exception e) {
             return FluidStack.EMPTY;
         }
@@ -163,12 +146,11 @@ public class FilingIndexFluidHandler implements IFluidHandler {
     @Override
     public boolean isFluidValid(int tank, @NotNull FluidStack stack) {
         try {
-            List<FluidTankInfo> tanks = getAllFluidTanks();
-            if (tank < 0 || tank >= tanks.size() || stack.isEmpty()) {
+            FluidTankInfo tankInfo = getTankInfo(tank);
+            if (tankInfo == null || stack.isEmpty()) {
                 return false;
             }
 
-            FluidTankInfo tankInfo = tanks.get(tank);
             return FluidHelper.areFluidsCompatible(
                     FluidHelper.getFluidId(stack.getFluid()),
                     FluidHelper.getFluidId(tankInfo.fluidStack.getFluid())
@@ -180,84 +162,7 @@ public class FilingIndexFluidHandler implements IFluidHandler {
 
     @Override
     public int fill(FluidStack resource, FluidAction action) {
-        if (resource.isEmpty() || !FluidHelper.isValidFluid(resource.getFluid())) {
-            return 0;
-        }
-
-        try {
-            ResourceLocation resourceFluidId = FluidHelper.getStillFluid(FluidHelper.getFluidId(resource.getFluid()));
-
-            List<FluidTankInfo> tanks = getAllFluidTanks();
-            for (FluidTankInfo tankInfo : tanks) {
-                ResourceLocation tankFluidId = FluidHelper.getStillFluid(FluidHelper.getFluidId(tankInfo.fluidStack.getFluid()));
-
-                if (FluidHelper.areFluidsCompatible(resourceFluidId, tankFluidId)) {
-                    if (level.getBlockEntity(tankInfo.cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet) {
-                        ItemStack canisterStack = fluidCabinet.inventory.getStackInSlot(tankInfo.slotIndex);
-                        if (canisterStack.getItem() instanceof FluidCanisterItem) {
-                            FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
-                            if (contents != null) {
-                                if (contents.amount() > Integer.MAX_VALUE - resource.getAmount()) {
-                                    return 0;
-                                }
-
-                                long newAmount = (long)contents.amount() + resource.getAmount();
-                                int maxToAdd = newAmount > Integer.MAX_VALUE ?
-                                        Integer.MAX_VALUE - contents.amount() : resource.getAmount();
-
-                                if (maxToAdd > 0 && action.execute()) {
-                                    FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
-                                            Optional.of(resourceFluidId),
-                                            contents.amount() + maxToAdd
-                                    );
-                                    canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), newContents);
-                                    fluidCabinet.setChanged();
-                                    notifyUpdate(tankInfo.cabinetPos);
-                                }
-
-                                return maxToAdd;
-                            }
-                        }
-                    }
-                }
-            }
-
-            List<BlockPos> cabinets = new ArrayList<>(indexEntity.getLinkedCabinets());
-            for (BlockPos cabinetPos : cabinets) {
-                if (!isInRangeCached(cabinetPos)) {
-                    continue;
-                }
-
-                if (level.getBlockEntity(cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet && fluidCabinet.isLinkedToController()) {
-                    for (int slot = 0; slot < 4; slot++) {
-                        ItemStack canisterStack = fluidCabinet.inventory.getStackInSlot(slot);
-
-                        if (canisterStack.getItem() instanceof FluidCanisterItem) {
-                            FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
-                            if (contents != null && contents.storedFluidId().isEmpty()) {
-                                int toAdd = Math.min(resource.getAmount(), Integer.MAX_VALUE);
-
-                                if (toAdd > 0 && action.execute()) {
-                                    FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
-                                            Optional.of(resourceFluidId),
-                                            toAdd
-                                    );
-                                    canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), newContents);
-                                    fluidCabinet.setChanged();
-                                    notifyUpdate(cabinetPos);
-                                }
-
-                                return toAdd;
-                            }
-                        }
-                    }
-                }
-            }
-
-            return 0;
-        } catch (Exception e) {
-            return 0;
-        }
+        return CanisterAccess.fillRouted(indexEntity, resource, action);
     }
 
     @Override
@@ -268,33 +173,13 @@ public class FilingIndexFluidHandler implements IFluidHandler {
         }
 
         try {
-            ResourceLocation resourceFluidId = FluidHelper.getStillFluid(FluidHelper.getFluidId(resource.getFluid()));
-
-            List<FluidTankInfo> tanks = getAllFluidTanks();
-            for (FluidTankInfo tankInfo : tanks) {
-                ResourceLocation tankFluidId = FluidHelper.getStillFluid(FluidHelper.getFluidId(tankInfo.fluidStack.getFluid()));
-
-                if (FluidHelper.areFluidsCompatible(resourceFluidId, tankFluidId)) {
-                    if (level.getBlockEntity(tankInfo.cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet) {
-                        ItemStack canisterStack = fluidCabinet.inventory.getStackInSlot(tankInfo.slotIndex);
-                        if (canisterStack.getItem() instanceof FluidCanisterItem) {
-                            FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
-                            if (contents != null && contents.amount() > 0) {
-                                int toDrain = Math.min(resource.getAmount(), contents.amount());
-
-                                if (toDrain > 0 && action.execute()) {
-                                    FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
-                                            contents.storedFluidId(),
-                                            contents.amount() - toDrain
-                                    );
-                                    canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), newContents);
-                                    fluidCabinet.setChanged();
-                                    notifyUpdate(tankInfo.cabinetPos);
-                                }
-
-                                return new FluidStack(resource.getFluid(), toDrain);
-                            }
-                        }
+            for (RoutingTable.SlotLocation location : indexEntity.getFluidRoutes(FluidRouteKey.of(resource))) {
+                if (!FolderAccess.isInRange(indexEntity, location.cabinetPos())) continue;
+
+                if (indexEntity.getLoadedCabinet(location.cabinetPos()) instanceof FluidCabinetBlockEntity fluidCabinet && fluidCabinet.isLinkedToController()) {
+                    int drained = CanisterAccess.drain(fluidCabinet, location.slot(), resource.getAmount(), action);
+                    if (drained > 0) {
+                        return new FluidStack(resource.getFluid(), drained);
                     }
                 }
             }
@@ -309,28 +194,12 @@ public class FilingIndexFluidHandler implements IFluidHandler {
     @NotNull
     public FluidStack drain(int maxDrain, FluidAction action) {
         try {
-            List<FluidTankInfo> tanks = getAllFluidTanks();
-            for (FluidTankInfo tankInfo : tanks) {
+            for (FluidTankInfo tankInfo : storedTanks()) {
                 if (tankInfo.fluidStack.getAmount() > 0) {
-                    if (level.getBlockEntity(tankInfo.cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet) {
-                        ItemStack canisterStack = fluidCabinet.inventory.getStackInSlot(tankInfo.slotIndex);
-                        if (canisterStack.getItem() instanceof FluidCanisterItem) {
-                            FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
-                            if (contents != null && contents.amount() > 0) {
-                                int toDrain = Math.min(maxDrain, contents.amount());
-
-                                if (toDrain > 0 && action.execute()) {
-                                    FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
-                                            contents.storedFluidId(),
-                                            contents.amount() - toDrain
-                                    );
-                                    canisterStack.set(FluidCanisterItem.CANISTER_CONTENTS.value(), newContents);
-                                    fluidCabinet.setChanged();
-                                    notifyUpdate(tankInfo.cabinetPos);
-                                }
-
-                                return new FluidStack(tankInfo.fluidStack.getFluid(), toDrain);
-                            }
+                    if (indexEntity.getLoadedCabinet(tankInfo.cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinet) {
+                        int drained = CanisterAccess.drain(fluidCabinet, tankInfo.slotIndex, maxDrain, action);
+                        if (drained > 0) {
+                            return new FluidStack(tankInfo.fluidStack.getFluid(), drained);
                         }
                     }
                 }
@@ -342,6 +211,8 @@ public class FilingIndexFluidHandler implements IFluidHandler {
         }
     }
 
+    private record CabinetSegment(long version, FluidTankInfo[] tanks) {}
+
     private static class FluidTankInfo {
         final BlockPos cabinetPos;
         final int slotIndex;
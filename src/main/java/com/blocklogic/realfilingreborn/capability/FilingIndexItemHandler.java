@@ -2,233 +2,232 @@ package com.blocklogic.realfilingreborn.capability;
 
 import com.blocklogic.realfilingreborn.block.entity.FilingCabinetBlockEntity;
 import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
-import com.blocklogic.realfilingreborn.config.Config;
 import com.blocklogic.realfilingreborn.item.custom.FilingFolderItem;
 import com.blocklogic.realfilingreborn.item.custom.NBTFilingFolderItem;
+import com.blocklogic.realfilingreborn.util.PersistentList;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
 import net.neoforged.neoforge.items.IItemHandler;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FilingIndexItemHandler implements IItemHandler {
+    private static final int CABINETS_PER_PAGE = 64;
+    private static final FolderView EMPTY_FOLDER = new FolderView(ItemStack.EMPTY, null);
+
     private final FilingIndexBlockEntity indexEntity;
     private final Level level;
 
-    private volatile List<VirtualSlotInfo> cachedVirtualSlots = null;
-    private final AtomicLong lastCacheTime = new AtomicLong(0);
-    private final AtomicLong cacheVersion = new AtomicLong(0);
-    private static final long CACHE_DURATION_MS = 500;
-    private static final int MAX_VIRTUAL_SLOTS_PER_SCAN = 1000;
-
-    private final Map<BlockPos, Boolean> inRangeCache = new ConcurrentHashMap<>();
-    private volatile long lastRangeCacheTime = 0;
-    private static final long RANGE_CACHE_DURATION_MS = 2000;
-
+    private final Map<BlockPos, CabinetSegment> segments = new ConcurrentHashMap<>();
+    private final List<SlotPage> pages = new ArrayList<>();
+    private int[] pageOffsets = new int[1];
+    private boolean offsetsDirty = true;
+    private long syncedNetworkVersion = -1;
+    private int syncedLinkVersion = -1;
 
     public FilingIndexItemHandler(FilingIndexBlockEntity indexEntity) {
         this.indexEntity = indexEntity;
         this.level = indexEntity.getLevel();
     }
 
-    private void notifyUpdate(BlockPos cabinetPos) {
-        if (level != null && !level.isClientSide()) {
-            level.sendBlockUpdated(cabinetPos, level.getBlockState(cabinetPos), level.getBlockState(cabinetPos), Block.UPDATE_CLIENTS);
-            invalidateCache();
+    private void sync() {
+        int linkVersion = indexEntity.getLinkVersion();
+        long networkVersion = indexEntity.getNetworkVersion();
+        if (networkVersion == syncedNetworkVersion && linkVersion == syncedLinkVersion) return;
+
+        Set<BlockPos> changed = syncedNetworkVersion < 0 || linkVersion != syncedLinkVersion
+                ? null : indexEntity.getCabinetChangesBetween(syncedNetworkVersion, networkVersion);
+        int pageCount = (indexEntity.getActiveCabinetCount() + CABINETS_PER_PAGE - 1) / CABINETS_PER_PAGE;
+
+        if (changed == null || pageCount != pages.size()) {
+            pages.clear();
+            for (int i = 0; i < pageCount; i++) {
+                pages.add(null);
+            }
+        } else {
+            for (BlockPos cabinetPos : changed) {
+                int activeIndex = indexEntity.getActiveCabinetIndex(cabinetPos);
+                if (activeIndex >= 0) {
+                    pages.set(activeIndex / CABINETS_PER_PAGE, null);
+                }
+            }
         }
-    }
 
-    public void invalidateCache() {
-        cachedVirtualSlots = null;
-        cacheVersion.incrementAndGet();
-        lastCacheTime.set(0);
+        offsetsDirty = true;
+        syncedNetworkVersion = networkVersion;
+        syncedLinkVersion = linkVersion;
     }
 
-    private void invalidateRangeCache() {
-        inRangeCache.clear();
-        lastRangeCacheTime = 0;
+    private SlotPage getPage(int pageIndex) {
+        SlotPage page = pages.get(pageIndex);
+        if (page != null) return page;
+
+        int start = pageIndex * CABINETS_PER_PAGE;
+        int end = Math.min(indexEntity.getActiveCabinetCount(), start + CABINETS_PER_PAGE);
+        int cabinetCount = Math.max(end - start, 0);
+        BlockPos[] cabinets = new BlockPos[cabinetCount];
+        int[] cabinetOffsets = new int[cabinetCount + 1];
+
+        for (int i = 0; i < cabinetCount; i++) {
+            cabinets[i] = indexEntity.getActiveCabinetInSlot(start + i);
+            int slots = cabinets[i] != null ? getSegment(cabinets[i]).slotCount() : 0;
+            cabinetOffsets[i + 1] = cabinetOffsets[i] + slots;
+        }
+
+        page = new SlotPage(cabinets, cabinetOffsets);
+        pages.set(pageIndex, page);
+        return page;
     }
 
-    private List<VirtualSlotInfo> getAllVirtualSlots() {
-        long currentTime = System.currentTimeMillis();
-        long currentVersion = cacheVersion.get();
+    private void ensureOffsets() {
+        if (!offsetsDirty) return;
 
-        List<VirtualSlotInfo> cached = cachedVirtualSlots;
-        if (cached != null && (currentTime - lastCacheTime.get()) < CACHE_DURATION_MS) {
-            return cached;
+        int[] offsets = new int[pages.size() + 1];
+        for (int i = 0; i < pages.size(); i++) {
+            offsets[i + 1] = offsets[i] + getPage(i).slotCount();
         }
+        pageOffsets = offsets;
+        offsetsDirty = false;
+    }
 
-        List<VirtualSlotInfo> virtualSlots = new ArrayList<>();
-        int slotCount = 0;
+    @Nullable
+    private SlotRef resolve(int slot) {
+        sync();
+        ensureOffsets();
+        if (slot < 0 || slot >= pageOffsets[pageOffsets.length - 1]) return null;
 
-        List<BlockPos> cabinets = new ArrayList<>(indexEntity.getLinkedCabinets());
+        int pageIndex = floorIndex(pageOffsets, slot);
+        SlotPage page = getPage(pageIndex);
+        int pageSlot = slot - pageOffsets[pageIndex];
 
-        for (BlockPos cabinetPos : cabinets) {
-            if (slotCount >= MAX_VIRTUAL_SLOTS_PER_SCAN) {
-                break;
-            }
+        int cabinetIndex = floorIndex(page.cabinetOffsets(), pageSlot);
+        BlockPos cabinetPos = page.cabinets()[cabinetIndex];
+        if (cabinetPos == null) return null;
 
-            if (!isInRangeCached(cabinetPos)) {
-                continue;
-            }
+        CabinetSegment segment = getSegment(cabinetPos);
+        int cabinetSlot = pageSlot - page.cabinetOffsets()[cabinetIndex];
+        int folderSlot = floorIndex(segment.folderOffsets(), cabinetSlot);
+        return new SlotRef(cabinetPos, folderSlot, segment.folders()[folderSlot], cabinetSlot - segment.folderOffsets()[folderSlot]);
+    }
 
-            if (level.getBlockEntity(cabinetPos) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
-                for (int slot = 0; slot < 5; slot++) {
-                    if (slotCount >= MAX_VIRTUAL_SLOTS_PER_SCAN) break;
-
-                    ItemStack folderStack = cabinet.inventory.getStackInSlot(slot);
-
-                    if (folderStack.getItem() instanceof FilingFolderItem && !(folderStack.getItem() instanceof NBTFilingFolderItem)) {
-                        FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
-                        if (contents != null && contents.storedItemId().isPresent() && contents.count() > 0) {
-                            ResourceLocation itemId = contents.storedItemId().get();
-                            Item item = BuiltInRegistries.ITEM.get(itemId);
-                            virtualSlots.add(new VirtualSlotInfo(cabinetPos, slot, VirtualSlotType.FILING_FOLDER, new ItemStack(item, contents.count())));
-                            slotCount++;
-                        }
-                    }
-                    else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
-                        NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
-                        if (contents != null && contents.storedItemId().isPresent() && !contents.storedItems().isEmpty()) {
-                            int itemsToProcess = Math.min(contents.storedItems().size(), 100);
-                            for (int i = 0; i < itemsToProcess; i++) {
-                                if (slotCount >= MAX_VIRTUAL_SLOTS_PER_SCAN) break;
-                                NBTFilingFolderItem.SerializedItemStack serializedItem = contents.storedItems().get(i);
-                                virtualSlots.add(new VirtualSlotInfo(cabinetPos, slot, VirtualSlotType.NBT_FOLDER, serializedItem.stack().copy(), i));
-                                slotCount++;
-                            }
-                        }
-                    }
-                }
+    private static int floorIndex(int[] offsets, int value) {
+        int low = 0;
+        int high = offsets.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= value) {
+                low = mid;
+            } else {
+                high = mid - 1;
             }
         }
+        return low;
+    }
 
-        if (currentVersion == cacheVersion.get()) {
-            cachedVirtualSlots = virtualSlots;
-            lastCacheTime.set(currentTime);
+    private CabinetSegment getSegment(BlockPos cabinetPos) {
+        long cabinetVersion = indexEntity.getCabinetVersion(cabinetPos);
+        CabinetSegment segment = segments.get(cabinetPos);
+        if (segment == null || segment.version() != cabinetVersion) {
+            if (segments.size() > indexEntity.getLinkedCabinetCount()) {
+                segments.keySet().removeIf(pos -> !indexEntity.isCabinetLinked(pos));
+            }
+            segment = buildSegment(cabinetVersion, cabinetPos);
+            segments.put(cabinetPos, segment);
         }
-
-        return virtualSlots;
+        return segment;
     }
 
-    private boolean isInRangeCached(BlockPos cabinetPos) {
-        long currentTime = System.currentTimeMillis();
+    private CabinetSegment buildSegment(long cabinetVersion, BlockPos cabinetPos) {
+        FolderView[] folders = new FolderView[5];
+        int[] folderOffsets = new int[6];
 
-        if ((currentTime - lastRangeCacheTime) > RANGE_CACHE_DURATION_MS) {
-            invalidateRangeCache();
-            lastRangeCacheTime = currentTime;
+        FilingCabinetBlockEntity cabinet = indexEntity.getLoadedCabinet(cabinetPos) instanceof FilingCabinetBlockEntity loaded && loaded.isLinkedToController() ? loaded : null;
+        for (int slot = 0; slot < 5; slot++) {
+            folders[slot] = cabinet != null ? buildFolderView(cabinet.inventory.getStackInSlot(slot)) : EMPTY_FOLDER;
+            folderOffsets[slot + 1] = folderOffsets[slot] + folders[slot].slotCount();
         }
 
-        return inRangeCache.computeIfAbsent(cabinetPos, pos -> indexEntity.isInRange(pos));
+        return new CabinetSegment(cabinetVersion, folders, folderOffsets);
+    }
+
+    private static FolderView buildFolderView(ItemStack folderStack) {
+        if (folderStack.getItem() instanceof FilingFolderItem && !(folderStack.getItem() instanceof NBTFilingFolderItem)) {
+            FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+            if (contents != null && contents.storedItemId().isPresent() && contents.count() > 0) {
+                Item item = BuiltInRegistries.ITEM.get(contents.storedItemId().get());
+                return new FolderView(new ItemStack(item, (int) Math.min(contents.count(), item.getDefaultMaxStackSize())), null);
+            }
+        } else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
+            NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
+            if (contents != null && !contents.storedItems().isEmpty()) {
+                return new FolderView(ItemStack.EMPTY, contents.items());
+            }
+        }
+        return EMPTY_FOLDER;
     }
 
     @Override
-    public int getSlots() {
-        return Math.max(indexEntity.getLinkedCabinetCount() * 5, 1);
+    public synchronized int getSlots() {
+        sync();
+        ensureOffsets();
+        return Math.max(pageOffsets[pageOffsets.length - 1], 1);
     }
 
     @Override
     @NotNull
-    public ItemStack getStackInSlot(int slot) {
-        List<BlockPos> cabinets = new ArrayList<>(indexEntity.getLinkedCabinets());
-        int cabinetIndex = slot / 5;
-        int cabinetSlot = slot % 5;
-
-        if (cabinetIndex >= cabinets.size()) {
-            return ItemStack.EMPTY;
-        }
-
-        BlockPos cabinetPos = cabinets.get(cabinetIndex);
-        if (!isInRangeCached(cabinetPos)) {
-            return ItemStack.EMPTY;
+    public synchronized ItemStack getStackInSlot(int slot) {
+        SlotRef ref = resolve(slot);
+        if (ref == null) return ItemStack.EMPTY;
+
+        PersistentList<NBTFilingFolderItem.SerializedItemStack> entries = ref.folder().entries();
+        if (entries != null) {
+            NBTFilingFolderItem.SerializedItemStack entry = entries.get(ref.entryIndex());
+            return entry.stack().copyWithCount(Math.min(entry.count(), entry.stack().getMaxStackSize()));
         }
-
-        if (level.getBlockEntity(cabinetPos) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
-            ItemStack folderStack = cabinet.inventory.getStackInSlot(cabinetSlot);
-
-            if (folderStack.getItem() instanceof FilingFolderItem && !(folderStack.getItem() instanceof NBTFilingFolderItem)) {
-                FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
-                if (contents != null && contents.storedItemId().isPresent() && contents.count() > 0) {
-                    Item item = BuiltInRegistries.ITEM.get(contents.storedItemId().get());
-                    return new ItemStack(item, Math.min(contents.count(), item.getDefaultMaxStackSize()));
-                }
-            } else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
-                NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
-                if (contents != null && !contents.storedItems().isEmpty()) {
-                    return contents.storedItems().get(0).stack().copy();
-                }
-            }
-        }
-
-        return ItemStack.EMPTY;
+        return ref.folder().display().copy();
     }
 
     @Override
     @NotNull
-    public ItemStack insertItem(int slot, @NotNull ItemStack stack, boolean simulate) {
+    public synchronized ItemStack insertItem(int slot, @NotNull ItemStack stack, boolean simulate) {
         if (stack.isEmpty()) return stack;
 
-        List<BlockPos> cabinets = new ArrayList<>(indexEntity.getLinkedCabinets());
-        int cabinetIndex = slot / 5;
-        int cabinetSlot = slot % 5;
-
-        if (cabinetIndex < cabinets.size()) {
-            BlockPos cabinetPos = cabinets.get(cabinetIndex);
-            if (isInRangeCached(cabinetPos)) {
-                if (level.getBlockEntity(cabinetPos) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
-                    ItemStack result = insertItemIntoCabinet(cabinet, cabinetSlot, stack, simulate, cabinetPos);
-                    if (result.getCount() < stack.getCount()) {
-                        return result;
-                    }
-                }
-            }
-        }
-
-        boolean hasNBT = NBTFilingFolderItem.hasSignificantNBT(stack);
-        ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
-
-        for (BlockPos cabinetPos : cabinets) {
-            if (!isInRangeCached(cabinetPos)) continue;
-
-            if (level.getBlockEntity(cabinetPos) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
-                for (int i = 0; i < 5; i++) {
-                    ItemStack result = tryInsertIntoFolder(cabinet, i, stack, itemId, hasNBT, simulate, cabinetPos);
-                    if (result.getCount() < stack.getCount()) {
-                        return result;
-                    }
+        SlotRef ref = resolve(slot);
+        if (ref != null) {
+            if (indexEntity.getLoadedCabinet(ref.cabinetPos()) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
+                ItemStack result = insertItemIntoCabinet(cabinet, ref.folderSlot(), stack, simulate, ref.cabinetPos());
+                if (result.getCount() < stack.getCount()) {
+                    return result;
                 }
             }
         }
 
-        return stack;
+        return FolderAccess.insertRouted(indexEntity, stack, simulate);
     }
 
     @Override
     @NotNull
-    public ItemStack extractItem(int slot, int amount, boolean simulate) {
+    public synchronized ItemStack extractItem(int slot, int amount, boolean simulate) {
         if (amount <= 0) return ItemStack.EMPTY;
 
-        List<BlockPos> cabinets = new ArrayList<>(indexEntity.getLinkedCabinets());
-        int cabinetIndex = slot / 5;
-        int cabinetSlot = slot % 5;
+        SlotRef ref = resolve(slot);
+        if (ref == null) return ItemStack.EMPTY;
 
-        if (cabinetIndex < cabinets.size()) {
-            BlockPos cabinetPos = cabinets.get(cabinetIndex);
-            if (isInRangeCached(cabinetPos)) {
-                if (level.getBlockEntity(cabinetPos) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
-                    return extractFromCabinet(cabinet, cabinetSlot, amount, simulate, cabinetPos);
-                }
+        if (indexEntity.getLoadedCabinet(ref.cabinetPos()) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
+            if (ref.folder().entries() != null) {
+                return FolderAccess.extractEntry(cabinet, ref.folderSlot(), ref.entryIndex(), amount, simulate);
             }
+            return FolderAccess.extract(cabinet, ref.folderSlot(), amount, simulate);
         }
 
         return ItemStack.EMPTY;
@@ -242,127 +241,12 @@ public class FilingIndexItemHandler implements IItemHandler {
             boolean hasNBT = NBTFilingFolderItem.hasSignificantNBT(stack);
             ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(stack.getItem());
 
-            return tryInsertIntoFolder(cabinet, cabinetSlot, stack, itemId, hasNBT, simulate, cabinetPos);
+            return FolderAccess.insert(cabinet, cabinetSlot, stack, itemId, hasNBT, simulate);
         } catch (Exception e) {
             return stack;
         }
     }
 
-    private ItemStack tryInsertIntoFolder(FilingCabinetBlockEntity cabinet, int cabinetSlot, ItemStack stack, ResourceLocation itemId, boolean hasNBT, boolean simulate, BlockPos cabinetPos) {
-        try {
-            ItemStack folderStack = cabinet.inventory.getStackInSlot(cabinetSlot);
-            if (folderStack.isEmpty()) return stack;
-
-            if (folderStack.getItem() instanceof FilingFolderItem && !(folderStack.getItem() instanceof NBTFilingFolderItem)) {
-                if (hasNBT) return stack;
-
-                FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
-                if (contents == null) return stack;
-
-                if (contents.storedItemId().isPresent() && contents.storedItemId().get().equals(itemId)) {
-                    if (contents.count() > Integer.MAX_VALUE - stack.getCount()) {
-                        return stack;
-                    }
-
-                    long newTotal = (long)contents.count() + stack.getCount();
-                    int maxAdd = newTotal > Integer.MAX_VALUE ? Integer.MAX_VALUE - contents.count() : stack.getCount();
-
-                    if (maxAdd > 0 && !simulate) {
-                        FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
-                                contents.storedItemId(), contents.count() + maxAdd);
-                        folderStack.set(FilingFolderItem.FOLDER_CONTENTS.value(), newContents);
-                        cabinet.setChanged();
-                        notifyUpdate(cabinetPos);
-                    }
-
-                    ItemStack remaining = stack.copy();
-                    remaining.shrink(maxAdd);
-                    return remaining;
-                }
-            } else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
-                if (!hasNBT) return stack;
-
-                NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
-                if (contents == null) return stack;
-
-                if (contents.storedItemId().isPresent() && contents.storedItemId().get().equals(itemId)) {
-                    int space = Config.getMaxNBTFolderStorage() - contents.storedItems().size();
-                    int canAdd = Math.min(1, space);
-
-                    if (canAdd > 0 && !simulate) {
-                        List<NBTFilingFolderItem.SerializedItemStack> newItems = new ArrayList<>(contents.storedItems());
-                        ItemStack single = stack.copy();
-                        single.setCount(1);
-                        newItems.add(new NBTFilingFolderItem.SerializedItemStack(single));
-
-                        NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                                contents.storedItemId(), newItems);
-                        folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
-                        cabinet.setChanged();
-                        notifyUpdate(cabinetPos);
-                    }
-
-                    ItemStack remaining = stack.copy();
-                    remaining.shrink(canAdd);
-                    return remaining;
-                }
-            }
-
-            return stack;
-        } catch (Exception e) {
-            return stack;
-        }
-    }
-
-    private ItemStack extractFromCabinet(FilingCabinetBlockEntity cabinet, int cabinetSlot, int amount, boolean simulate, BlockPos cabinetPos) {
-        try {
-            ItemStack folderStack = cabinet.inventory.getStackInSlot(cabinetSlot);
-            if (folderStack.isEmpty()) return ItemStack.EMPTY;
-
-            if (folderStack.getItem() instanceof FilingFolderItem && !(folderStack.getItem() instanceof NBTFilingFolderItem)) {
-                FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
-                if (contents != null && contents.storedItemId().isPresent() && contents.count() > 0) {
-                    Item item = BuiltInRegistries.ITEM.get(contents.storedItemId().get());
-                    int extractAmount = Math.min(amount, Math.min(contents.count(), item.getDefaultMaxStackSize()));
-
-                    if (extractAmount > 0 && !simulate) {
-                        FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
-                                contents.storedItemId(), contents.count() - extractAmount);
-                        folderStack.set(FilingFolderItem.FOLDER_CONTENTS.value(), newContents);
-                        cabinet.setChanged();
-                        notifyUpdate(cabinetPos);
-                    }
-
-                    return new ItemStack(item, extractAmount);
-                }
-            } else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
-                NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
-                if (contents != null && !contents.storedItems().isEmpty()) {
-                    int extractAmount = Math.min(amount, 1);
-
-                    if (extractAmount > 0 && !simulate) {
-                        List<NBTFilingFolderItem.SerializedItemStack> newItems = new ArrayList<>(contents.storedItems());
-                        newItems.remove(newItems.size() - 1);
-
-                        NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                                contents.storedItemId(), newItems);
-                        folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
-                        cabinet.setChanged();
-                        notifyUpdate(cabinetPos);
-                    }
-
-                    ItemStack result = contents.storedItems().get(contents.storedItems().size() - 1).stack().copy();
-                    result.setCount(extractAmount);
-                    return result;
-                }
-            }
-
-            return ItemStack.EMPTY;
-        } catch (Exception e) {
-            return ItemStack.EMPTY;
-        }
-    }
-
     @Override
     public int getSlotLimit(int slot) {
         return 64;
@@ -373,28 +257,27 @@ public class FilingIndexItemHandler implements IItemHandler {
         return true;
     }
 
-    private static class VirtualSlotInfo {
-        final BlockPos cabinetPos;
-        final int slotIndex;
-        final VirtualSlotType type;
-        final ItemStack virtualStack;
-        final int nbtIndex;
+    private record FolderView(ItemStack display, @Nullable PersistentList<NBTFilingFolderItem.SerializedItemStack> entries) {
+        int slotCount() {
+            return entries != null ? entries.size() : 1;
+        }
+    }
 
-        public VirtualSlotInfo(BlockPos cabinetPos, int slotIndex, VirtualSlotType type, ItemStack virtualStack) {
-            this(cabinetPos, slotIndex, type, virtualStack, -1);
+    private record CabinetSegment(long version, FolderView[] folders, int[] folderOffsets) {
+        int slotCount() {
+            return folderOffsets[folders.length];
         }
+    }
 
-        public VirtualSlotInfo(BlockPos cabinetPos, int slotIndex, VirtualSlotType type, ItemStack virtualStack, int nbtIndex) {
-            this.cabinetPos = cabinetPos;
-            this.slotIndex = slotIndex;
-            this.type = type;
-            this.virtualStack = virtualStack;
-            this.nbtIndex = nbtIndex;
+    private record SlotPage(BlockPos[] cabinets, int[] cabinetOffsets) {
+        int slotCount() {
+            return cabinetOffsets[cabinets.length];
         }
     }
 
-    private enum VirtualSlotType {
-        FILING_FOLDER,
-        NBT_FOLDER
+    private record SlotRef(BlockPos cabinetPos, int folderSlot, FolderView folder, int slotOffset) {
+        int entryIndex() {
+            return folder.entries().size() - 1 - slotOffset;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package com.blocklogic.realfilingreborn.capability;
+
+import com.blocklogic.realfilingreborn.block.entity.FilingCabinetBlockEntity;
+import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
+import com.blocklogic.realfilingreborn.config.Config;
+import com.blocklogic.realfilingreborn.item.custom.FilingFolderItem;
+import com.blocklogic.realfilingreborn.item.custom.NBTFilingFolderItem;
+import com.blocklogic.realfilingreborn.util.RoutingTable;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class FilingIndexStorage implements IFilingIndexStorage {
+    private final FilingIndexBlockEntity indexEntity;
+
+    public FilingIndexStorage(FilingIndexBlockEntity indexEntity) {
+        this.indexEntity = indexEntity;
+    }
+
+    @Override
+    public long count(Item item) {
+        long total = 0;
+
+        for (RoutingTable.SlotLocation location : indexEntity.getItemRoutes(new ItemRouteKey(BuiltInRegistries.ITEM.getKey(item), false))) {
+            ItemStack folderStack = getFolder(location);
+            FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+            if (contents != null) {
+                total += contents.count();
+            }
+        }
+
+        return total;
+    }
+
+    @Override
+    public long extract(Item item, long amount, boolean simulate) {
+        if (amount <= 0) return 0;
+
+        Set<FilingCabinetBlockEntity> touched = new LinkedHashSet<>();
+        long remaining = amount;
+
+        try {
+            for (RoutingTable.SlotLocation location : indexEntity.getItemRoutes(new ItemRouteKey(BuiltInRegistries.ITEM.getKey(item), false))) {
+                if (remaining <= 0) break;
+
+                FilingCabinetBlockEntity cabinet = getCabinet(location);
+                if (cabinet == null) continue;
+
+                ItemStack folderStack = cabinet.inventory.getStackInSlot(location.slot());
+                FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+                if (contents == null || contents.count() <= 0) continue;
+
+                long toExtract = Math.min(remaining, contents.count());
+                if (!simulate) {
+                    folderStack.set(FilingFolderItem.FOLDER_CONTENTS.value(),
+                            new FilingFolderItem.FolderContents(contents.storedItemId(), contents.count() - toExtract));
+                    touched.add(cabinet);
+                }
+                remaining -= toExtract;
+            }
+        } finally {
+            touched.forEach(FilingCabinetBlockEntity::notifyFolderContentsChanged);
+        }
+
+        return amount - remaining;
+    }
+
+    @Override
+    public long insert(ItemStack stack, long amount, boolean simulate) {
+        if (stack.isEmpty() || amount <= 0) return 0;
+
+        ItemRouteKey routeKey = ItemRouteKey.of(stack);
+        Set<FilingCabinetBlockEntity> touched = new LinkedHashSet<>();
+        long remaining = amount;
+
+        try {
+            for (RoutingTable.SlotLocation location : indexEntity.getItemRoutes(routeKey)) {
+                if (remaining <= 0) break;
+
+                FilingCabinetBlockEntity cabinet = getCabinet(location);
+                if (cabinet == null) continue;
+
+                ItemStack folderStack = cabinet.inventory.getStackInSlot(location.slot());
+                long accepted = routeKey.nbt()
+                        ? insertIntoNBTFolder(folderStack, stack, remaining, simulate)
+                        : insertIntoFolder(folderStack, remaining, simulate);
+
+                if (accepted > 0) {
+                    if (!simulate) {
+                        touched.add(cabinet);
+                    }
+                    remaining -= accepted;
+                }
+            }
+        } finally {
+            touched.forEach(FilingCabinetBlockEntity::notifyFolderContentsChanged);
+        }
+
+        return amount - remaining;
+    }
+
+    private long insertIntoFolder(ItemStack folderStack, long amount, boolean simulate) {
+        FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+        if (contents == null || contents.storedItemId().isEmpty()) return 0;
+
+        long toAdd = Math.min(amount, Math.max(0, Config.getMaxFolderStorage() - contents.count()));
+        if (toAdd > 0 && !simulate) {
+            folderStack.set(FilingFolderItem.FOLDER_CONTENTS.value(),
+                    new FilingFolderItem.FolderContents(contents.storedItemId(), contents.count() + toAdd));
+        }
+        return toAdd;
+    }
+
+    private int insertIntoNBTFolder(ItemStack folderStack, ItemStack stack, long amount, boolean simulate) {
+        NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
+        if (contents == null || contents.storedItemId().isEmpty()) return 0;
+
+        int toAdd = (int) Math.min(amount, Math.max(0, Config.getMaxNBTFolderStorage() - contents.totalCount()));
+        if (toAdd > 0 && !simulate) {
+            folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withAppended(stack, toAdd));
+        }
+        return toAdd;
+    }
+
+    private ItemStack getFolder(RoutingTable.SlotLocation location) {
+        FilingCabinetBlockEntity cabinet = getCabinet(location);
+        return cabinet != null ? cabinet.inventory.getStackInSlot(location.slot()) : ItemStack.EMPTY;
+    }
+
+    @Nullable
+    private FilingCabinetBlockEntity getCabinet(RoutingTable.SlotLocation location) {
+        Level level = indexEntity.getLevel();
+        if (level == null || !FolderAccess.isInRange(indexEntity, location.cabinetPos())) {
+            return null;
+        }
+
+        if (indexEntity.getLoadedCabinet(location.cabinetPos()) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
+            return cabinet;
+        }
+        return null;
+    }
+}
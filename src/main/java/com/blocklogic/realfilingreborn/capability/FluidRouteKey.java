@@ -0,0 +1,28 @@
+package com.blocklogic.realfilingreborn.capability;
+
+import com.blocklogic.realfilingreborn.item.custom.FluidCanisterItem;
+import com.blocklogic.realfilingreborn.util.FluidHelper;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.neoforged.neoforge.fluids.FluidStack;
+import org.jetbrains.annotations.Nullable;
+
+public record FluidRouteKey(@Nullable ResourceLocation fluidId) {
+    public static final FluidRouteKey UNASSIGNED = new FluidRouteKey(null);
+
+    public static FluidRouteKey of(FluidStack stack) {
+        return new FluidRouteKey(FluidHelper.getStillFluid(FluidHelper.getFluidId(stack.getFluid())));
+    }
+
+    @Nullable
+    public static FluidRouteKey forCanister(ItemStack canisterStack) {
+        if (!(canisterStack.getItem() instanceof FluidCanisterItem)) return null;
+
+        FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
+        if (contents == null) return null;
+
+        return contents.storedFluidId()
+                .map(fluidId -> new FluidRouteKey(FluidHelper.getStillFluid(fluidId)))
+                .orElse(UNASSIGNED);
+    }
+}
@@ -0,0 +1,157 @@
+package com.blocklogic.realfilingreborn.capability;
+
+import com.blocklogic.realfilingreborn.block.entity.FilingCabinetBlockEntity;
+import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
+import com.blocklogic.realfilingreborn.config.Config;
+import com.blocklogic.realfilingreborn.item.custom.FilingFolderItem;
+import com.blocklogic.realfilingreborn.item.custom.NBTFilingFolderItem;
+import com.blocklogic.realfilingreborn.util.RoutingTable;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+
+
+public final class FolderAccess {
+
+    private FolderAccess() {}
+
+    public static ItemStack insertRouted(FilingIndexBlockEntity indexEntity, ItemStack stack, boolean simulate) {
+        Level level = indexEntity.getLevel();
+        if (level == null || stack.isEmpty()) return stack;
+
+        ItemRouteKey routeKey = ItemRouteKey.of(stack);
+
+        for (RoutingTable.SlotLocation location : indexEntity.getItemRoutes(routeKey)) {
+            BlockPos cabinetPos = location.cabinetPos();
+            if (!isInRange(indexEntity, cabinetPos)) continue;
+
+            if (indexEntity.getLoadedCabinet(cabinetPos) instanceof FilingCabinetBlockEntity cabinet && cabinet.isLinkedToController()) {
+                ItemStack result = insert(cabinet, location.slot(), stack, routeKey.itemId(), routeKey.nbt(), simulate);
+                if (result.getCount() < stack.getCount()) {
+                    return result;
+                }
+            }
+        }
+
+        return stack;
+    }
+
+    public static boolean isInRange(FilingIndexBlockEntity indexEntity, BlockPos cabinetPos) {
+        try {
+            return indexEntity.isInRange(cabinetPos);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public static ItemStack insert(FilingCabinetBlockEntity cabinet, int cabinetSlot, ItemStack stack, ResourceLocation itemId, boolean hasNBT, boolean simulate) {
+        try {
+            ItemStack folderStack = cabinet.inventory.getStackInSlot(cabinetSlot);
+            if (folderStack.isEmpty()) return stack;
+
+            if (folderStack.getItem() instanceof FilingFolderItem && !(folderStack.getItem() instanceof NBTFilingFolderItem)) {
+                if (hasNBT) return stack;
+
+                FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+                if (contents == null) return stack;
+
+                if (contents.storedItemId().isPresent() && contents.storedItemId().get().equals(itemId)) {
+                    int maxAdd = (int) Math.min(stack.getCount(), Math.max(0, Config.getMaxFolderStorage() - contents.count()));
+
+                    if (maxAdd > 0 && !simulate) {
+                        FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
+                                contents.storedItemId(), contents.count() + maxAdd);
+                        folderStack.set(FilingFolderItem.FOLDER_CONTENTS.value(), newContents);
+                        cabinet.notifyFolderContentsChanged();
+                    }
+
+                    ItemStack remaining = stack.copy();
+                    remaining.shrink(maxAdd);
+                    return remaining;
+                }
+            } else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
+                if (!hasNBT) return stack;
+
+                NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
+                if (contents == null) return stack;
+
+                if (contents.storedItemId().isPresent() && contents.storedItemId().get().equals(itemId)) {
+                    int space = Config.getMaxNBTFolderStorage() - contents.totalCount();
+                    int canAdd = Math.min(1, space);
+
+                    if (canAdd > 0 && !simulate) {
+                        folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withAppended(stack, canAdd));
+                        cabinet.notifyFolderContentsChanged();
+                    }
+
+                    ItemStack remaining = stack.copy();
+                    remaining.shrink(canAdd);
+                    return remaining;
+                }
+            }
+
+            return stack;
+        } catch (Exception e) {
+            return stack;
+        }
+    }
+
+    public static ItemStack extract(FilingCabinetBlockEntity cabinet, int cabinetSlot, int amount, boolean simulate) {
+        try {
+            ItemStack folderStack = cabinet.inventory.getStackInSlot(cabinetSlot);
+            if (folderStack.isEmpty()) return ItemStack.EMPTY;
+
+            if (folderStack.getItem() instanceof FilingFolderItem && !(folderStack.getItem() instanceof NBTFilingFolderItem)) {
+                FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+                if (contents != null && contents.storedItemId().isPresent() && contents.count() > 0) {
+                    Item item = BuiltInRegistries.ITEM.get(contents.storedItemId().get());
+                    int extractAmount = (int) Math.min(amount, Math.min(contents.count(), item.getDefaultMaxStackSize()));
+
+                    if (extractAmount > 0 && !simulate) {
+                        FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
+                                contents.storedItemId(), contents.count() - extractAmount);
+                        folderStack.set(FilingFolderItem.FOLDER_CONTENTS.value(), newContents);
+                        cabinet.notifyFolderContentsChanged();
+                    }
+
+                    return new ItemStack(item, extractAmount);
+                }
+            } else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
+                NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
+                if (contents != null && !contents.storedItems().isEmpty()) {
+                    return extractEntry(cabinet, cabinetSlot, contents.storedItems().size() - 1, amount, simulate);
+                }
+            }
+
+            return ItemStack.EMPTY;
+        } catch (Exception e) {
+            return ItemStack.EMPTY;
+        }
+    }
+
+    public static ItemStack extractEntry(FilingCabinetBlockEntity cabinet, int cabinetSlot, int entryIndex, int amount, boolean simulate) {
+        try {
+            ItemStack folderStack = cabinet.inventory.getStackInSlot(cabinetSlot);
+            if (!(folderStack.getItem() instanceof NBTFilingFolderItem)) return ItemStack.EMPTY;
+
+            NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
+            if (contents == null || entryIndex < 0 || entryIndex >= contents.storedItems().size()) return ItemStack.EMPTY;
+
+            NBTFilingFolderItem.SerializedItemStack entry = contents.storedItems().get(entryIndex);
+            int extractAmount = Math.min(amount, Math.min(entry.count(), entry.stack().getMaxStackSize()));
+            if (extractAmount <= 0) return ItemStack.EMPTY;
+
+            if (!simulate) {
+                folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withoutEntry(entryIndex, extractAmount));
+                cabinet.notifyFolderContentsChanged();
+            }
+
+            return entry.stack().copyWithCount(extractAmount);
+        } catch (Exception e) {
+            return ItemStack.EMPTY;
+        }
+    }
+}
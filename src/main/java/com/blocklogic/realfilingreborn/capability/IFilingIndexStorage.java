@@ -0,0 +1,13 @@
+package com.blocklogic.realfilingreborn.capability;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+public interface IFilingIndexStorage {
+
+    long count(Item item);
+
+    long extract(Item item, long amount, boolean simulate);
+
+    long insert(ItemStack stack, long amount, boolean simulate);
+}
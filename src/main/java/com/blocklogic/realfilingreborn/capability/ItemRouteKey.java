@@ -0,0 +1,54 @@
+package com.blocklogic.realfilingreborn.capability;
+
+import com.blocklogic.realfilingreborn.item.custom.FilingFolderItem;
+import com.blocklogic.realfilingreborn.item.custom.NBTFilingFolderItem;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+public record ItemRouteKey(ResourceLocation itemId, boolean nbt) {
+
+    public static ItemRouteKey of(ItemStack stack) {
+        return new ItemRouteKey(BuiltInRegistries.ITEM.getKey(stack.getItem()), NBTFilingFolderItem.hasSignificantNBT(stack));
+    }
+
+    @Nullable
+    public static ItemRouteKey forFolder(ItemStack folderStack) {
+        if (folderStack.isEmpty()) return null;
+
+        if (folderStack.getItem() instanceof FilingFolderItem && !(folderStack.getItem() instanceof NBTFilingFolderItem)) {
+            FilingFolderItem.FolderContents contents = folderStack.get(FilingFolderItem.FOLDER_CONTENTS.value());
+            if (contents != null && contents.storedItemId().isPresent()) {
+                return new ItemRouteKey(contents.storedItemId().get(), false);
+            }
+        } else if (folderStack.getItem() instanceof NBTFilingFolderItem) {
+            NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
+            if (contents != null && contents.storedItemId().isPresent()) {
+                return new ItemRouteKey(contents.storedItemId().get(), true);
+            }
+        }
+
+        return null;
+    }
+
+    @Nullable
+    public static ItemRouteKey forEncodedFolder(CompoundTag itemTag) {
+        ResourceLocation folderId = ResourceLocation.tryParse(itemTag.getString("id"));
+        if (folderId == null) return null;
+
+        Item folder = BuiltInRegistries.ITEM.get(folderId);
+        boolean nbt = folder instanceof NBTFilingFolderItem;
+        if (!nbt && !(folder instanceof FilingFolderItem)) return null;
+
+        ResourceLocation componentId = nbt ? NBTFilingFolderItem.NBT_FOLDER_CONTENTS.getId() : FilingFolderItem.FOLDER_CONTENTS.getId();
+        CompoundTag contents = itemTag.getCompound("components").getCompound(componentId.toString());
+        if (!contents.contains("storedItemId", Tag.TAG_STRING)) return null;
+
+        ResourceLocation storedItemId = ResourceLocation.tryParse(contents.getString("storedItemId"));
+        return storedItemId != null ? new ItemRouteKey(storedItemId, nbt) : null;
+    }
+}
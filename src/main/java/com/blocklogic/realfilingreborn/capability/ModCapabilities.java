@@ -0,0 +1,12 @@
+package com.blocklogic.realfilingreborn.capability;
+
+import com.blocklogic.realfilingreborn.RealFilingReborn;
+import net.minecraft.core.Direction;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.capabilities.BlockCapability;
+import org.jetbrains.annotations.Nullable;
+
+public class ModCapabilities {
+    public static final BlockCapability<IFilingIndexStorage, @Nullable Direction> FILING_INDEX_STORAGE =
+            BlockCapability.createSided(ResourceLocation.fromNamespaceAndPath(RealFilingReborn.MODID, "filing_index_storage"), IFilingIndexStorage.class);
+}
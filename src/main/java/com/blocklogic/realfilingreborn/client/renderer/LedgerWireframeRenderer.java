@@ -6,6 +6,7 @@ import com.blocklogic.realfilingreborn.block.entity.FluidCabinetBlockEntity;
 import com.blocklogic.realfilingreborn.component.LedgerData;
 import com.blocklogic.realfilingreborn.component.ModDataComponents;
 import com.blocklogic.realfilingreborn.item.custom.LedgerItem;
+import com.blocklogic.realfilingreborn.network.IndexCabinetsRequestPacket;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import net.minecraft.client.Minecraft;
@@ -25,6 +26,7 @@ import net.neoforged.api.distmarker.OnlyIn;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.neoforge.client.event.RenderLevelStageEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
 
 import java.util.Set;
 
@@ -70,6 +72,9 @@ public class LedgerWireframeRenderer {
         }
 
         if (data.selectedController() != null && level.getBlockEntity(data.selectedController()) instanceof FilingIndexBlockEntity indexEntity) {
+            if (indexEntity.needsLinkedCabinetPositions()) {
+                PacketDistributor.sendToServer(new IndexCabinetsRequestPacket(data.selectedController()));
+            }
             renderConnectedCabinetsWireframe(poseStack, cameraPos, indexEntity.getLinkedCabinets(), level);
             renderRangeWireframe(poseStack, cameraPos, data.selectedController(), indexEntity.getRange());
         }
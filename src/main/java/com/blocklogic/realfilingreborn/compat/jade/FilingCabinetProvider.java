@@ -53,7 +53,7 @@ public enum FilingCabinetProvider implements IBlockComponentProvider, IServerDat
                     tooltip.add(Component.literal("Folder " + (slot + 1) + " (NBT): " + itemName + " (" + uniqueCount + " items)")
                             .withStyle(ChatFormatting.AQUA));
                 } else {
-                    int count = folderTag.getInt("count");
+                    long count = folderTag.getLong("count");
                     String formattedCount = NumberFormat.getNumberInstance(Locale.US).format(count);
                     double fillPercentage = ((double) count / Config.getMaxFolderStorage()) * 100.0;
                     String percentText = String.format("%.2f%%", fillPercentage);
@@ -88,7 +88,7 @@ public enum FilingCabinetProvider implements IBlockComponentProvider, IServerDat
 
                         folderTag.putString("item_id", itemId.toString());
                         folderTag.putString("item_name", BuiltInRegistries.ITEM.get(itemId).getDescription().getString());
-                        folderTag.putInt("count", contents.count());
+                        folderTag.putLong("count", contents.count());
                         folderTag.putBoolean("is_nbt", false);
                     }
                 } else if (stackInSlot.getItem() instanceof NBTFilingFolderItem) {
@@ -100,7 +100,7 @@ public enum FilingCabinetProvider implements IBlockComponentProvider, IServerDat
 
                         folderTag.putString("item_id", itemId.toString());
                         folderTag.putString("item_name", BuiltInRegistries.ITEM.get(itemId).getDescription().getString());
-                        folderTag.putInt("unique_count", contents.storedItems().size());
+                        folderTag.putInt("unique_count", contents.totalCount());
                         folderTag.putBoolean("is_nbt", true);
                     }
                 }
@@ -66,7 +66,8 @@ public record LedgerData(
 
     public enum SelectionMode {
         SINGLE,
-        MULTI;
+        MULTI,
+        CONNECTED;
 
         public static final Codec<SelectionMode> CODEC = Codec.stringResolver(
                 SelectionMode::name,
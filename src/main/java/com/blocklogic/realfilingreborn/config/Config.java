@@ -23,14 +23,15 @@ public class Config {
 
     public static final String CATEGORY_STORAGE_LIMITS = "storage_limits";
     public static final String CATEGORY_FILING_INDEX_RANGES = "filing_index_ranges";
+    public static final String CATEGORY_PERFORMANCE = "performance";
 
     // ========================================
     // STORAGE LIMITS CONFIGURATION
     // ========================================
 
-    public static ModConfigSpec.IntValue MAX_FOLDER_STORAGE;
+    public static ModConfigSpec.LongValue MAX_FOLDER_STORAGE;
     public static ModConfigSpec.IntValue MAX_NBT_FOLDER_STORAGE;
-    public static ModConfigSpec.IntValue MAX_CANISTER_STORAGE;
+    public static ModConfigSpec.LongValue MAX_CANISTER_STORAGE;
 
     // ========================================
     // FILING INDEX RANGES CONFIGURATION
@@ -41,6 +42,12 @@ public class Config {
     public static ModConfigSpec.IntValue DIAMOND_RANGE_UPGRADE;
     public static ModConfigSpec.IntValue NETHERITE_RANGE_UPGRADE;
 
+    // ========================================
+    // PERFORMANCE CONFIGURATION
+    // ========================================
+
+    public static ModConfigSpec.IntValue CABINET_SYNC_INTERVAL;
+
     public static void register(ModContainer container) {
         registerCommonConfigs(container);
     }
@@ -48,6 +55,7 @@ public class Config {
     private static void registerCommonConfigs(ModContainer container) {
         storageLimitsConfig();
         filingIndexRangesConfig();
+        performanceConfig();
         COMMON_CONFIG = COMMON_BUILDER.build();
         SPEC = COMMON_CONFIG; // Legacy compatibility
         container.registerConfig(ModConfig.Type.COMMON, COMMON_CONFIG);
@@ -61,9 +69,9 @@ public class Config {
         COMMON_BUILDER.comment("Storage Limits - Configure maximum storage capacities for folders and canisters").push(CATEGORY_STORAGE_LIMITS);
 
         MAX_FOLDER_STORAGE = COMMON_BUILDER.comment("Maximum items storable in filing folders",
-                        "Default: " + Integer.MAX_VALUE + " (unlimited)",
+                        "Default: " + Long.MAX_VALUE + " (unlimited)",
                         "Minimum: 4096 (64 stacks)")
-                .defineInRange("max_folder_storage", Integer.MAX_VALUE, 4096, Integer.MAX_VALUE);
+                .defineInRange("max_folder_storage", Long.MAX_VALUE, 4096L, Long.MAX_VALUE);
 
         MAX_NBT_FOLDER_STORAGE = COMMON_BUILDER.comment("Maximum items storable in NBT filing folders",
                         "NBT folders store items with enchantments, custom names, etc.",
@@ -75,9 +83,9 @@ public class Config {
                 .defineInRange("max_nbt_folder_storage", 128, 16, 200);
 
         MAX_CANISTER_STORAGE = COMMON_BUILDER.comment("Maximum fluid storable in canisters (millibuckets)",
-                        "Default: " + Integer.MAX_VALUE + " (unlimited)",
+                        "Default: " + Long.MAX_VALUE + " (unlimited)",
                         "Minimum: 64000 (64 buckets)")
-                .defineInRange("max_canister_storage", Integer.MAX_VALUE, 64000, Integer.MAX_VALUE);
+                .defineInRange("max_canister_storage", Long.MAX_VALUE, 64000L, Long.MAX_VALUE);
 
         COMMON_BUILDER.pop();
     }
@@ -112,11 +120,23 @@ public class Config {
         COMMON_BUILDER.pop();
     }
 
+    private static void performanceConfig() {
+        COMMON_BUILDER.comment("Performance - Configure how often cabinets synchronize with clients").push(CATEGORY_PERFORMANCE);
+
+        CABINET_SYNC_INTERVAL = COMMON_BUILDER.comment("Minimum ticks between client updates for a single cabinet",
+                        "Changes made within this window are sent to clients as one update",
+                        "Higher values reduce network traffic but make displayed counts lag behind",
+                        "Default: 1 (at most once per tick)")
+                .defineInRange("cabinet_sync_interval", 1, 1, 100);
+
+        COMMON_BUILDER.pop();
+    }
+
     // ========================================
     // GETTER METHODS FOR STORAGE LIMITS
     // ========================================
 
-    public static int getMaxFolderStorage() {
+    public static long getMaxFolderStorage() {
         return MAX_FOLDER_STORAGE.get();
     }
 
@@ -124,7 +144,7 @@ public class Config {
         return MAX_NBT_FOLDER_STORAGE.get();
     }
 
-    public static int getMaxCanisterStorage() {
+    public static long getMaxCanisterStorage() {
         return MAX_CANISTER_STORAGE.get();
     }
 
@@ -148,6 +168,14 @@ public class Config {
         return NETHERITE_RANGE_UPGRADE.get();
     }
 
+    // ========================================
+    // GETTER METHODS FOR PERFORMANCE
+    // ========================================
+
+    public static int getCabinetSyncInterval() {
+        return CABINET_SYNC_INTERVAL.get();
+    }
+
     // ========================================
     // VALIDATION METHODS
     // ========================================
@@ -200,9 +228,9 @@ public class Config {
 
     private static void logConfigValues() {
         LOGGER.info("Storage Limits Configuration:");
-        LOGGER.info("  Max Folder Storage: {} items", getMaxFolderStorage() == Integer.MAX_VALUE ? "unlimited" : String.format("%,d", getMaxFolderStorage()));
+        LOGGER.info("  Max Folder Storage: {} items", getMaxFolderStorage() == Long.MAX_VALUE ? "unlimited" : String.format("%,d", getMaxFolderStorage()));
         LOGGER.info("  Max NBT Folder Storage: {} items", String.format("%,d", getMaxNBTFolderStorage()));
-        LOGGER.info("  Max Canister Storage: {}mb", getMaxCanisterStorage() == Integer.MAX_VALUE ? "unlimited" : String.format("%,d", getMaxCanisterStorage()));
+        LOGGER.info("  Max Canister Storage: {}mb", getMaxCanisterStorage() == Long.MAX_VALUE ? "unlimited" : String.format("%,d", getMaxCanisterStorage()));
 
         LOGGER.info("Filing Index Ranges Configuration:");
         LOGGER.info("  Base Range: {} blocks ({}x{} area)", getFilingIndexBaseRange(), getFilingIndexBaseRange() * 2, getFilingIndexBaseRange() * 2);
@@ -210,6 +238,9 @@ public class Config {
         LOGGER.info("  Diamond Upgrade: {} blocks ({}x{} area)", getDiamondRangeUpgrade(), getDiamondRangeUpgrade() * 2, getDiamondRangeUpgrade() * 2);
         LOGGER.info("  Netherite Upgrade: {} blocks ({}x{} area)", getNetheriteRangeUpgrade(), getNetheriteRangeUpgrade() * 2, getNetheriteRangeUpgrade() * 2);
 
+        LOGGER.info("Performance Configuration:");
+        LOGGER.info("  Cabinet Sync Interval: {} ticks", getCabinetSyncInterval());
+
         int netheriteArea = (getNetheriteRangeUpgrade() * 2) * (getNetheriteRangeUpgrade() * 2);
         if (netheriteArea > 65536) {
             LOGGER.warn("Netherite upgrade covers {} blocks - this is a very large area!", String.format("%,d", netheriteArea));
@@ -34,12 +34,12 @@ import java.util.List;
 import java.util.Optional;
 
 public class FilingFolderItem extends Item {
-    public record FolderContents(Optional<ResourceLocation> storedItemId, int count) {}
+    public record FolderContents(Optional<ResourceLocation> storedItemId, long count) {}
 
     private static final Codec<FolderContents> FOLDER_CONTENTS_CODEC = RecordCodecBuilder.create(instance ->
             instance.group(
                     ResourceLocation.CODEC.optionalFieldOf("storedItemId").forGetter(FolderContents::storedItemId),
-                    Codec.INT.fieldOf("count").forGetter(FolderContents::count)
+                    Codec.LONG.fieldOf("count").forGetter(FolderContents::count)
             ).apply(instance, FolderContents::new)
     );
 
@@ -49,7 +49,7 @@ public class FilingFolderItem extends Item {
 
     private static final StreamCodec<ByteBuf, FolderContents> FOLDER_CONTENTS_STREAM_CODEC = StreamCodec.composite(
             ByteBufCodecs.optional(RESOURCE_LOCATION_STREAM_CODEC), FolderContents::storedItemId,
-            ByteBufCodecs.INT, FolderContents::count,
+            ByteBufCodecs.VAR_LONG, FolderContents::count,
             FolderContents::new
     );
 
@@ -185,11 +185,11 @@ public class FilingFolderItem extends Item {
         Item item = BuiltInRegistries.ITEM.get(itemId);
 
         ItemStack dummyStack = new ItemStack(item);
-        int extractAmount = Math.min(Math.min(contents.count(), item.getMaxStackSize(dummyStack)), 64);
+        int extractAmount = (int) Math.min(Math.min(contents.count(), item.getMaxStackSize(dummyStack)), 64);
 
         ItemStack extractedStack = new ItemStack(item, extractAmount);
 
-        int newCount = contents.count() - extractAmount;
+        long newCount = contents.count() - extractAmount;
         FolderContents newContents = new FolderContents(
                 contents.storedItemId(),
                 Math.max(0, newCount)
@@ -243,8 +243,8 @@ public class FilingFolderItem extends Item {
             }
         }
 
-        int maxToAdd = Config.getMaxFolderStorage() - contents.count();
-        int toAdd = Math.min(itemToStore.getCount(), maxToAdd);
+        long maxToAdd = Config.getMaxFolderStorage() - contents.count();
+        int toAdd = (int) Math.min(itemToStore.getCount(), maxToAdd);
 
         if (toAdd <= 0) {
             player.displayClientMessage(Component.translatable("message.realfilingreborn.folder_full"), true);
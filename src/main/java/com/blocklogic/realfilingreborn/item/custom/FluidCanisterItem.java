@@ -33,12 +33,12 @@ import java.util.List;
 import java.util.Optional;
 
 public class FluidCanisterItem extends Item {
-    public record CanisterContents(Optional<ResourceLocation> storedFluidId, int amount) {}
+    public record CanisterContents(Optional<ResourceLocation> storedFluidId, long amount) {}
 
     private static final Codec<CanisterContents> CANISTER_CONTENTS_CODEC = RecordCodecBuilder.create(instance ->
             instance.group(
                     ResourceLocation.CODEC.optionalFieldOf("storedFluidId").forGetter(CanisterContents::storedFluidId),
-                    Codec.INT.fieldOf("amount").forGetter(CanisterContents::amount)
+                    Codec.LONG.fieldOf("amount").forGetter(CanisterContents::amount)
             ).apply(instance, CanisterContents::new)
     );
 
@@ -48,7 +48,7 @@ public class FluidCanisterItem extends Item {
 
     private static final StreamCodec<ByteBuf, CanisterContents> CANISTER_CONTENTS_STREAM_CODEC = StreamCodec.composite(
             ByteBufCodecs.optional(RESOURCE_LOCATION_STREAM_CODEC), CanisterContents::storedFluidId,
-            ByteBufCodecs.INT, CanisterContents::amount,
+            ByteBufCodecs.VAR_LONG, CanisterContents::amount,
             CanisterContents::new
     );
 
@@ -177,7 +177,7 @@ public class FluidCanisterItem extends Item {
             return InteractionResultHolder.fail(canisterStack);
         }
 
-        int extractAmount = Math.min(contents.amount(), 1000);
+        int extractAmount = (int) Math.min(contents.amount(), 1000);
 
         if (extractAmount < 1000) {
             player.displayClientMessage(Component.translatable("message.realfilingreborn.not_enough_fluid"), true);
@@ -198,7 +198,7 @@ public class FluidCanisterItem extends Item {
             return InteractionResultHolder.fail(canisterStack);
         }
 
-        int newAmount = contents.amount() - 1000;
+        long newAmount = contents.amount() - 1000;
         CanisterContents newContents = new CanisterContents(
                 contents.storedFluidId(),
                 Math.max(0, newAmount)
@@ -251,8 +251,8 @@ public class FluidCanisterItem extends Item {
             }
         }
 
-        int maxToAdd = Config.getMaxCanisterStorage() - contents.amount();
-        int toAdd = Math.min(1000, maxToAdd);
+        long maxToAdd = Config.getMaxCanisterStorage() - contents.amount();
+        int toAdd = (int) Math.min(1000, maxToAdd);
 
         if (toAdd <= 0) {
             player.displayClientMessage(Component.translatable("message.realfilingreborn.canister_full"), true);
@@ -287,8 +287,8 @@ public class FluidCanisterItem extends Item {
                     .withStyle(ChatFormatting.GRAY));
 
             if (contents.amount() > 0) {
-                int buckets = contents.amount() / 1000;
-                int millibuckets = contents.amount() % 1000;
+                long buckets = contents.amount() / 1000;
+                long millibuckets = contents.amount() % 1000;
                 String amountText = buckets > 0 ?
                         (millibuckets > 0 ? buckets + "." + (millibuckets / 100) + "B" : buckets + "B") :
                         millibuckets + "mB";
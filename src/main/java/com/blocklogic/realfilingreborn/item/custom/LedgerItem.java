@@ -8,9 +8,13 @@ import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
 import com.blocklogic.realfilingreborn.block.entity.FluidCabinetBlockEntity;
 import com.blocklogic.realfilingreborn.component.LedgerData;
 import com.blocklogic.realfilingreborn.component.ModDataComponents;
+import com.blocklogic.realfilingreborn.util.IndexNetworkRegistry;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.InteractionResultHolder;
@@ -22,16 +26,18 @@ import net.minecraft.world.item.context.UseOnContext;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
 
+import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.Set;
 
 public class LedgerItem extends Item {
 
-    private static final int MAX_SELECTION_SIZE = 1000;
-    private static final int MAX_SELECTION_DIMENSION = 32;
+    private static final int MAX_SELECTION_DIMENSION = 64;
+    private static final int MAX_SELECTION_SIZE = MAX_SELECTION_DIMENSION * MAX_SELECTION_DIMENSION * MAX_SELECTION_DIMENSION;
+    private static final int MAX_CONNECTED_CABINETS = 4096;
 
     public LedgerItem(Properties properties) {
         super(properties);
@@ -41,6 +47,10 @@ public class LedgerItem extends Item {
     public InteractionResultHolder<ItemStack> use(Level level, Player player, InteractionHand hand) {
         ItemStack stack = player.getItemInHand(hand);
 
+        if (!level.isClientSide() && LedgerSelectionJob.cancel(player)) {
+            return InteractionResultHolder.success(stack);
+        }
+
         if (player.isShiftKeyDown()) {
             toggleOperationMode(stack, player);
         } else {
@@ -60,7 +70,11 @@ public class LedgerItem extends Item {
 
         if (player == null) return InteractionResult.FAIL;
 
-        LedgerData data = stack.getOrDefault(ModDataComponents.LEDGER_DATA.get(), LedgerData.DEFAULT);
+        if (!level.isClientSide() && LedgerSelectionJob.cancel(player)) {
+            return InteractionResult.SUCCESS;
+        }
+
+        LedgerData data = clearRemovedController(level, stack, player);
 
         if (state.getBlock() instanceof FilingIndexBlock && player.isShiftKeyDown()) {
             selectController(stack, pos, player);
@@ -68,10 +82,10 @@ public class LedgerItem extends Item {
         }
 
         if ((state.getBlock() instanceof FilingCabinetBlock || state.getBlock() instanceof FluidCabinetBlock) && player.isShiftKeyDown()) {
-            if (data.selectionMode() == LedgerData.SelectionMode.SINGLE) {
-                handleSingleCabinetAction(level, pos, stack, player);
-            } else {
-                handleMultiCabinetAction(level, pos, stack, player);
+            switch (data.selectionMode()) {
+                case SINGLE -> handleSingleCabinetAction(level, pos, stack, player);
+                case MULTI -> handleMultiCabinetAction(level, pos, stack, player);
+                case CONNECTED -> handleConnectedCabinetAction(level, pos, stack, player);
             }
             return InteractionResult.SUCCESS;
         }
@@ -99,18 +113,39 @@ public class LedgerItem extends Item {
     private void toggleSelectionMode(ItemStack stack, Player player) {
         LedgerData currentData = stack.getOrDefault(ModDataComponents.LEDGER_DATA.get(), LedgerData.DEFAULT);
 
-        LedgerData.SelectionMode newMode = currentData.selectionMode() == LedgerData.SelectionMode.SINGLE
-                ? LedgerData.SelectionMode.MULTI
-                : LedgerData.SelectionMode.SINGLE;
+        LedgerData.SelectionMode newMode = switch (currentData.selectionMode()) {
+            case SINGLE -> LedgerData.SelectionMode.MULTI;
+            case MULTI -> LedgerData.SelectionMode.CONNECTED;
+            case CONNECTED -> LedgerData.SelectionMode.SINGLE;
+        };
 
         LedgerData newData = currentData.withSelectionMode(newMode);
         stack.set(ModDataComponents.LEDGER_DATA.get(), newData);
 
-        Component message = newMode == LedgerData.SelectionMode.SINGLE
-                ? Component.translatable("item.realfilingreborn.ledger.selection.single")
-                : Component.translatable("item.realfilingreborn.ledger.selection.multi");
+        Component message = switch (newMode) {
+            case SINGLE -> Component.translatable("item.realfilingreborn.ledger.selection.single");
+            case MULTI -> Component.translatable("item.realfilingreborn.ledger.selection.multi");
+            case CONNECTED -> Component.translatable("item.realfilingreborn.ledger.selection.connected");
+        };
+
+        player.displayClientMessage(message, true);
+    }
+
+    private LedgerData clearRemovedController(Level level, ItemStack stack, Player player) {
+        LedgerData data = stack.getOrDefault(ModDataComponents.LEDGER_DATA.get(), LedgerData.DEFAULT);
+        BlockPos controllerPos = data.selectedController();
+        IndexNetworkRegistry registry = IndexNetworkRegistry.get(level);
+
+        if (controllerPos == null || registry == null || registry.hasController(controllerPos) || !level.isLoaded(controllerPos)) {
+            return data;
+        }
+
+        LedgerData newData = data.withSelectedController(null);
+        stack.set(ModDataComponents.LEDGER_DATA.get(), newData);
 
+        Component message = Component.translatable("item.realfilingreborn.ledger.controller.cleared");
         player.displayClientMessage(message, true);
+        return newData;
     }
 
     private void selectController(ItemStack stack, BlockPos controllerPos, Player player) {
@@ -154,10 +189,7 @@ public class LedgerItem extends Item {
             } else {
                 BlockPos oldControllerPos = cabinetEntity.getControllerPos();
                 cabinetEntity.clearControllerPos();
-
-                if (oldControllerPos != null && level.getBlockEntity(oldControllerPos) instanceof FilingIndexBlockEntity oldIndex) {
-                    oldIndex.removeCabinet(cabinetPos);
-                }
+                FilingIndexBlockEntity.unlinkCabinet(level, cabinetPos, oldControllerPos);
 
                 Component message = Component.translatable("item.realfilingreborn.ledger.cabinet.unlinked");
                 player.displayClientMessage(message, true);
@@ -173,10 +205,7 @@ public class LedgerItem extends Item {
             } else {
                 BlockPos oldControllerPos = fluidCabinetEntity.getControllerPos();
                 fluidCabinetEntity.clearControllerPos();
-
-                if (oldControllerPos != null && level.getBlockEntity(oldControllerPos) instanceof FilingIndexBlockEntity oldIndex) {
-                    oldIndex.removeCabinet(cabinetPos);
-                }
+                FilingIndexBlockEntity.unlinkCabinet(level, cabinetPos, oldControllerPos);
 
                 Component message = Component.translatable("item.realfilingreborn.ledger.cabinet.unlinked");
                 player.displayClientMessage(message, true);
@@ -222,124 +251,124 @@ public class LedgerItem extends Item {
         int sizeY = maxY - minY + 1;
         int sizeZ = maxZ - minZ + 1;
 
-        if (sizeX > MAX_SELECTION_DIMENSION || sizeY > MAX_SELECTION_DIMENSION || sizeZ > MAX_SELECTION_DIMENSION) {
-            player.displayClientMessage(Component.literal("Selection too large! Maximum size: " + MAX_SELECTION_DIMENSION + " blocks per dimension").withStyle(ChatFormatting.RED), true);
+        long totalBlocks = (long) sizeX * sizeY * sizeZ;
+        if (sizeX > MAX_SELECTION_DIMENSION || sizeY > MAX_SELECTION_DIMENSION || sizeZ > MAX_SELECTION_DIMENSION || totalBlocks > MAX_SELECTION_SIZE) {
+            player.displayClientMessage(Component.literal("Selection too large! Maximum size: " + MAX_SELECTION_DIMENSION + " blocks per dimension, "
+                    + MAX_SELECTION_SIZE + " blocks total").withStyle(ChatFormatting.RED), true);
             return;
         }
 
-        long totalBlocks = (long) sizeX * sizeY * sizeZ;
-        if (totalBlocks > MAX_SELECTION_SIZE) {
-            player.displayClientMessage(Component.literal("Selection too large! Maximum total blocks: " + MAX_SELECTION_SIZE).withStyle(ChatFormatting.RED), true);
-            return;
+        if (level instanceof ServerLevel serverLevel && player instanceof ServerPlayer serverPlayer) {
+            LedgerSelectionJob.start(serverLevel, serverPlayer, data.operationMode(), data.selectedController(), pos1, pos2);
         }
+    }
+
+    private void handleConnectedCabinetAction(Level level, BlockPos startPos, ItemStack stack, Player player) {
+        if (level.isClientSide()) return;
 
+        LedgerData data = stack.getOrDefault(ModDataComponents.LEDGER_DATA.get(), LedgerData.DEFAULT);
         FilingIndexBlockEntity indexEntity = null;
-        if (data.selectedController() != null && level.getBlockEntity(data.selectedController()) instanceof FilingIndexBlockEntity index) {
+
+        if (data.operationMode() == LedgerData.OperationMode.ADD) {
+            if (data.selectedController() == null || !(level.getBlockEntity(data.selectedController()) instanceof FilingIndexBlockEntity index)) {
+                Component message = Component.translatable("item.realfilingreborn.ledger.error.no_controller");
+                player.displayClientMessage(message, true);
+                return;
+            }
+
+            if (!isInRange(data.selectedController(), startPos, index.getRange())) {
+                Component message = Component.translatable("item.realfilingreborn.ledger.cabinet.out_of_range");
+                player.displayClientMessage(message, true);
+                return;
+            }
             indexEntity = index;
         }
 
-        Map<BlockPos, FilingIndexBlockEntity> controllerLookup = new HashMap<>();
-        if (data.operationMode() == LedgerData.OperationMode.REMOVE) {
-            int searchRadius = Math.min(64, Math.max(sizeX, Math.max(sizeY, sizeZ)) * 2);
-            BlockPos center = new BlockPos(
-                    (minX + maxX) / 2,
-                    (minY + maxY) / 2,
-                    (minZ + maxZ) / 2
-            );
-
-            for (int dx = -searchRadius; dx <= searchRadius; dx += 8) {
-                for (int dy = -searchRadius; dy <= searchRadius; dy += 8) {
-                    for (int dz = -searchRadius; dz <= searchRadius; dz += 8) {
-                        BlockPos checkPos = center.offset(dx, dy, dz);
-                        if (level.getBlockEntity(checkPos) instanceof FilingIndexBlockEntity controller) {
-                            controllerLookup.put(checkPos, controller);
-                        }
-                    }
+        Set<BlockPos> cabinets = collectConnectedCabinets(level, startPos, data.selectedController(), indexEntity);
+
+        if (indexEntity != null) {
+            for (BlockPos cabinetPos : cabinets) {
+                if (level.getBlockEntity(cabinetPos) instanceof FilingCabinetBlockEntity cabinetEntity) {
+                    cabinetEntity.setControllerPos(data.selectedController());
+                } else if (level.getBlockEntity(cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinetEntity) {
+                    fluidCabinetEntity.setControllerPos(data.selectedController());
                 }
             }
+            indexEntity.addCabinets(cabinets);
+
+            Component message = Component.translatable("item.realfilingreborn.ledger.multi.linked", cabinets.size());
+            player.displayClientMessage(message, true);
+            return;
         }
 
-        Set<BlockPos> cabinetsToAdd = new HashSet<>();
-        Set<BlockPos> cabinetsToRemove = new HashSet<>();
-        int processedCount = 0;
-
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    BlockPos currentPos = new BlockPos(x, y, z);
-                    BlockState state = level.getBlockState(currentPos);
-
-                    if (!(state.getBlock() instanceof FilingCabinetBlock || state.getBlock() instanceof FluidCabinetBlock)) {
-                        continue;
-                    }
-
-                    if (data.operationMode() == LedgerData.OperationMode.ADD && indexEntity != null) {
-                        if (!isInRange(data.selectedController(), currentPos, indexEntity.getRange())) {
-                            continue;
-                        }
-                    }
-
-                    boolean processed = false;
-
-                    if (level.getBlockEntity(currentPos) instanceof FilingCabinetBlockEntity cabinetEntity) {
-                        if (data.operationMode() == LedgerData.OperationMode.ADD) {
-                            cabinetEntity.setControllerPos(data.selectedController());
-                            cabinetsToAdd.add(currentPos);
-                        } else {
-                            BlockPos oldControllerPos = cabinetEntity.getControllerPos();
-                            cabinetEntity.clearControllerPos();
-
-                            if (oldControllerPos != null && controllerLookup.containsKey(oldControllerPos)) {
-                                cabinetsToRemove.add(currentPos);
-                            }
-                        }
-                        processed = true;
-                    }
-                    else if (level.getBlockEntity(currentPos) instanceof FluidCabinetBlockEntity fluidCabinetEntity) {
-                        if (data.operationMode() == LedgerData.OperationMode.ADD) {
-                            fluidCabinetEntity.setControllerPos(data.selectedController());
-                            cabinetsToAdd.add(currentPos);
-                        } else {
-                            BlockPos oldControllerPos = fluidCabinetEntity.getControllerPos();
-                            fluidCabinetEntity.clearControllerPos();
-
-                            if (oldControllerPos != null && controllerLookup.containsKey(oldControllerPos)) {
-                                cabinetsToRemove.add(currentPos);
-                            }
-                        }
-                        processed = true;
-                    }
-
-                    if (processed) {
-                        processedCount++;
-                    }
+        IndexNetworkRegistry registry = IndexNetworkRegistry.get(level);
+        Map<BlockPos, Set<BlockPos>> cabinetsToRemove = new HashMap<>();
+
+        for (BlockPos cabinetPos : cabinets) {
+            BlockPos oldControllerPos = registry != null ? registry.getController(cabinetPos) : null;
+
+            if (level.getBlockEntity(cabinetPos) instanceof FilingCabinetBlockEntity cabinetEntity) {
+                if (oldControllerPos == null) {
+                    oldControllerPos = cabinetEntity.getControllerPos();
                 }
+                cabinetEntity.clearControllerPos();
+            } else if (level.getBlockEntity(cabinetPos) instanceof FluidCabinetBlockEntity fluidCabinetEntity) {
+                if (oldControllerPos == null) {
+                    oldControllerPos = fluidCabinetEntity.getControllerPos();
+                }
+                fluidCabinetEntity.clearControllerPos();
             }
-        }
 
-        if (!cabinetsToAdd.isEmpty() && indexEntity != null) {
-            indexEntity.addCabinets(cabinetsToAdd);
+            if (oldControllerPos != null) {
+                cabinetsToRemove.computeIfAbsent(oldControllerPos, k -> new HashSet<>()).add(cabinetPos);
+            }
         }
 
-        if (!cabinetsToRemove.isEmpty()) {
-            for (BlockPos cabinetPos : cabinetsToRemove) {
-                for (FilingIndexBlockEntity controller : controllerLookup.values()) {
-                    if (controller.getLinkedCabinets().contains(cabinetPos)) {
-                        controller.removeCabinet(cabinetPos);
-                        break;
-                    }
+        for (Map.Entry<BlockPos, Set<BlockPos>> entry : cabinetsToRemove.entrySet()) {
+            if (level.isLoaded(entry.getKey()) && level.getBlockEntity(entry.getKey()) instanceof FilingIndexBlockEntity controller) {
+                controller.removeCabinets(entry.getValue());
+            }
+
+            if (registry != null) {
+                for (BlockPos cabinetPos : entry.getValue()) {
+                    registry.unlink(cabinetPos);
                 }
             }
         }
 
-        Component message = data.operationMode() == LedgerData.OperationMode.ADD
-                ? Component.translatable("item.realfilingreborn.ledger.multi.linked", processedCount)
-                : Component.translatable("item.realfilingreborn.ledger.multi.unlinked", processedCount);
-
+        Component message = Component.translatable("item.realfilingreborn.ledger.multi.unlinked", cabinets.size());
         player.displayClientMessage(message, true);
     }
 
-    private boolean isInRange(BlockPos controllerPos, BlockPos cabinetPos, int range) {
+    private Set<BlockPos> collectConnectedCabinets(Level level, BlockPos startPos, BlockPos controllerPos, FilingIndexBlockEntity indexEntity) {
+        Set<BlockPos> visited = new HashSet<>();
+        ArrayDeque<BlockPos> queue = new ArrayDeque<>();
+        int range = indexEntity != null ? indexEntity.getRange() : 0;
+
+        visited.add(startPos.immutable());
+        queue.add(startPos.immutable());
+
+        while (!queue.isEmpty() && visited.size() < MAX_CONNECTED_CABINETS) {
+            BlockPos pos = queue.poll();
+
+            for (Direction direction : Direction.values()) {
+                BlockPos next = pos.relative(direction);
+                if (visited.contains(next) || !level.isLoaded(next)) continue;
+
+                BlockState state = level.getBlockState(next);
+                if (!(state.getBlock() instanceof FilingCabinetBlock) && !(state.getBlock() instanceof FluidCabinetBlock)) continue;
+                if (indexEntity != null && !isInRange(controllerPos, next, range)) continue;
+
+                visited.add(next);
+                queue.add(next);
+                if (visited.size() >= MAX_CONNECTED_CABINETS) break;
+            }
+        }
+
+        return visited;
+    }
+
+    static boolean isInRange(BlockPos controllerPos, BlockPos cabinetPos, int range) {
         double distSq = controllerPos.distSqr(cabinetPos);
         double rangeSq = (double) range * range;
         return distSq <= rangeSq;
@@ -356,9 +385,11 @@ public class LedgerItem extends Item {
                 : Component.translatable("item.realfilingreborn.ledger.tooltip.operation.remove").withStyle(ChatFormatting.RED);
         tooltip.add(operationText);
 
-        Component selectionText = data.selectionMode() == LedgerData.SelectionMode.SINGLE
-                ? Component.translatable("item.realfilingreborn.ledger.tooltip.selection.single").withStyle(ChatFormatting.AQUA)
-                : Component.translatable("item.realfilingreborn.ledger.tooltip.selection.multi").withStyle(ChatFormatting.LIGHT_PURPLE);
+        Component selectionText = switch (data.selectionMode()) {
+            case SINGLE -> Component.translatable("item.realfilingreborn.ledger.tooltip.selection.single").withStyle(ChatFormatting.AQUA);
+            case MULTI -> Component.translatable("item.realfilingreborn.ledger.tooltip.selection.multi").withStyle(ChatFormatting.LIGHT_PURPLE);
+            case CONNECTED -> Component.translatable("item.realfilingreborn.ledger.tooltip.selection.connected").withStyle(ChatFormatting.GOLD);
+        };
         tooltip.add(selectionText);
 
         if (data.selectedController() != null) {
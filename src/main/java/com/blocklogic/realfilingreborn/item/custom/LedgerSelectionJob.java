@@ -0,0 +1,310 @@
+package com.blocklogic.realfilingreborn.item.custom;
+
+import com.blocklogic.realfilingreborn.block.custom.FilingCabinetBlock;
+import com.blocklogic.realfilingreborn.block.custom.FluidCabinetBlock;
+import com.blocklogic.realfilingreborn.block.entity.FilingCabinetBlockEntity;
+import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
+import com.blocklogic.realfilingreborn.block.entity.FluidCabinetBlockEntity;
+import com.blocklogic.realfilingreborn.component.LedgerData;
+import com.blocklogic.realfilingreborn.util.IndexNetworkRegistry;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@EventBusSubscriber(modid = "realfilingreborn")
+public class LedgerSelectionJob {
+    private static final int CHUNKS_PER_TICK = 8;
+    private static final int CABINETS_PER_TICK = 512;
+    private static final int PROGRESS_INTERVAL_TICKS = 5;
+    private static final Map<UUID, LedgerSelectionJob> ACTIVE_JOBS = new ConcurrentHashMap<>();
+
+    private final ServerLevel level;
+    private final ServerPlayer player;
+    private final LedgerData.OperationMode mode;
+    @Nullable
+    private final BlockPos controllerPos;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int chunksX;
+    @Nullable
+    private List<BlockPos> candidates;
+    @Nullable
+    private List<BlockEntity> chunkCabinets;
+    private int chunkCursor = 0;
+    private int total;
+    private int cursor = 0;
+    private int processedCount = 0;
+    private int ticks = 0;
+
+    private LedgerSelectionJob(ServerLevel level, ServerPlayer player, LedgerData.OperationMode mode, @Nullable BlockPos controllerPos, BlockPos pos1, BlockPos pos2) {
+        this.level = level;
+        this.player = player;
+        this.mode = mode;
+        this.controllerPos = controllerPos;
+        this.minX = Math.min(pos1.getX(), pos2.getX());
+        this.minY = Math.min(pos1.getY(), pos2.getY());
+        this.minZ = Math.min(pos1.getZ(), pos2.getZ());
+        this.maxX = Math.max(pos1.getX(), pos2.getX());
+        this.maxY = Math.max(pos1.getY(), pos2.getY());
+        this.maxZ = Math.max(pos1.getZ(), pos2.getZ());
+        this.minChunkX = SectionPos.blockToSectionCoord(minX);
+        this.minChunkZ = SectionPos.blockToSectionCoord(minZ);
+        this.chunksX = SectionPos.blockToSectionCoord(maxX) - minChunkX + 1;
+        this.total = chunksX * (SectionPos.blockToSectionCoord(maxZ) - minChunkZ + 1);
+    }
+
+    public static void start(ServerLevel level, ServerPlayer player, LedgerData.OperationMode mode, @Nullable BlockPos controllerPos, BlockPos pos1, BlockPos pos2) {
+        LedgerSelectionJob job = new LedgerSelectionJob(level, player, mode, controllerPos, pos1, pos2);
+        LedgerSelectionJob previous = ACTIVE_JOBS.put(player.getUUID(), job);
+        if (previous != null) {
+            previous.finish(true);
+        }
+
+        if (!job.tick()) {
+            ACTIVE_JOBS.remove(player.getUUID(), job);
+        }
+    }
+
+    public static boolean cancel(Player player) {
+        LedgerSelectionJob job = ACTIVE_JOBS.remove(player.getUUID());
+        if (job == null) {
+            return false;
+        }
+
+        job.finish(true);
+        return true;
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        if (ACTIVE_JOBS.isEmpty()) return;
+
+        Iterator<LedgerSelectionJob> it = ACTIVE_JOBS.values().iterator();
+        while (it.hasNext()) {
+            if (!it.next().tick()) {
+                it.remove();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        LedgerSelectionJob job = ACTIVE_JOBS.remove(event.getEntity().getUUID());
+        if (job != null) {
+            job.finish(true);
+        }
+    }
+
+    private boolean tick() {
+        if (player.isRemoved() || player.level() != level) {
+            finish(true);
+            return false;
+        }
+
+        FilingIndexBlockEntity indexEntity = null;
+        if (controllerPos != null && level.isLoaded(controllerPos) && level.getBlockEntity(controllerPos) instanceof FilingIndexBlockEntity index) {
+            indexEntity = index;
+        }
+
+        if (mode == LedgerData.OperationMode.ADD && indexEntity == null) {
+            player.displayClientMessage(Component.translatable("item.realfilingreborn.ledger.error.no_controller"), true);
+            return false;
+        }
+
+        IndexNetworkRegistry registry = IndexNetworkRegistry.get(level);
+        Set<BlockPos> cabinetsToAdd = new HashSet<>();
+        Map<BlockPos, Set<BlockPos>> cabinetsToRemove = new HashMap<>();
+
+        for (BlockEntity blockEntity : nextSlice(indexEntity)) {
+            BlockPos cabinetPos = blockEntity.getBlockPos();
+            if (blockEntity.isRemoved() || !isInSelection(cabinetPos)) continue;
+
+            if (mode == LedgerData.OperationMode.ADD && !LedgerItem.isInRange(controllerPos, cabinetPos, indexEntity.getRange())) {
+                continue;
+            }
+
+            if (blockEntity instanceof FilingCabinetBlockEntity cabinetEntity) {
+                if (mode == LedgerData.OperationMode.ADD) {
+                    cabinetEntity.setControllerPos(controllerPos);
+                    cabinetsToAdd.add(cabinetPos);
+                } else {
+                    BlockPos oldControllerPos = registry != null ? registry.getController(cabinetPos) : null;
+                    if (oldControllerPos == null) {
+                        oldControllerPos = cabinetEntity.getControllerPos();
+                    }
+                    cabinetEntity.clearControllerPos();
+
+                    if (oldControllerPos != null) {
+                        cabinetsToRemove.computeIfAbsent(oldControllerPos, k -> new HashSet<>()).add(cabinetPos);
+                    }
+                }
+                processedCount++;
+            } else if (blockEntity instanceof FluidCabinetBlockEntity fluidCabinetEntity) {
+                if (mode == LedgerData.OperationMode.ADD) {
+                    fluidCabinetEntity.setControllerPos(controllerPos);
+                    cabinetsToAdd.add(cabinetPos);
+                } else {
+                    BlockPos oldControllerPos = registry != null ? registry.getController(cabinetPos) : null;
+                    if (oldControllerPos == null) {
+                        oldControllerPos = fluidCabinetEntity.getControllerPos();
+                    }
+                    fluidCabinetEntity.clearControllerPos();
+
+                    if (oldControllerPos != null) {
+                        cabinetsToRemove.computeIfAbsent(oldControllerPos, k -> new HashSet<>()).add(cabinetPos);
+                    }
+                }
+                processedCount++;
+            }
+        }
+
+        if (!cabinetsToAdd.isEmpty() && indexEntity != null) {
+            indexEntity.addCabinets(cabinetsToAdd);
+        }
+
+        for (Map.Entry<BlockPos, Set<BlockPos>> entry : cabinetsToRemove.entrySet()) {
+            if (level.isLoaded(entry.getKey()) && level.getBlockEntity(entry.getKey()) instanceof FilingIndexBlockEntity controller) {
+                controller.removeCabinets(entry.getValue());
+            }
+
+            if (registry != null) {
+                for (BlockPos cabinetPos : entry.getValue()) {
+                    registry.unlink(cabinetPos);
+                }
+            }
+        }
+
+        if (cursor >= total) {
+            finish(false);
+            return false;
+        }
+
+        if (ticks++ % PROGRESS_INTERVAL_TICKS == 0) {
+            int percent = cursor * 100 / total;
+            player.displayClientMessage(Component.translatable("item.realfilingreborn.ledger.multi.progress", percent, processedCount), true);
+        }
+        return true;
+    }
+
+    private List<BlockEntity> nextSlice(@Nullable FilingIndexBlockEntity indexEntity) {
+        List<BlockEntity> slice = new ArrayList<>();
+
+        if (mode == LedgerData.OperationMode.ADD && indexEntity != null) {
+            if (candidates == null) {
+                candidates = new ArrayList<>();
+                for (BlockPos cabinetPos : indexEntity.getCabinetsInRange()) {
+                    if (isInSelection(cabinetPos)) {
+                        candidates.add(cabinetPos);
+                    }
+                }
+                total = candidates.size();
+            }
+
+            int end = Math.min(total, cursor + CABINETS_PER_TICK);
+            for (; cursor < end; cursor++) {
+                BlockPos cabinetPos = candidates.get(cursor);
+                BlockEntity blockEntity = level.isLoaded(cabinetPos) ? level.getBlockEntity(cabinetPos) : null;
+                if (blockEntity != null) {
+                    slice.add(blockEntity);
+                }
+            }
+            return slice;
+        }
+
+        int budget = CABINETS_PER_TICK;
+        int chunksOpened = 0;
+        while (budget > 0 && cursor < total) {
+            if (chunkCabinets == null) {
+                if (chunksOpened++ >= CHUNKS_PER_TICK) break;
+
+                LevelChunk chunk = level.getChunkSource().getChunkNow(minChunkX + cursor % chunksX, minChunkZ + cursor / chunksX);
+                if (chunk == null || !mayContainCabinets(chunk)) {
+                    cursor++;
+                    continue;
+                }
+
+                chunkCabinets = new ArrayList<>();
+                for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+                    if ((blockEntity instanceof FilingCabinetBlockEntity || blockEntity instanceof FluidCabinetBlockEntity) && isInSelection(blockEntity.getBlockPos())) {
+                        chunkCabinets.add(blockEntity);
+                    }
+                }
+                chunkCursor = 0;
+            }
+
+            int end = Math.min(chunkCabinets.size(), chunkCursor + budget);
+            slice.addAll(chunkCabinets.subList(chunkCursor, end));
+            budget -= end - chunkCursor;
+            chunkCursor = end;
+
+            if (chunkCursor >= chunkCabinets.size()) {
+                chunkCabinets = null;
+                cursor++;
+            }
+        }
+        return slice;
+    }
+
+    private boolean mayContainCabinets(LevelChunk chunk) {
+        for (int sectionY = SectionPos.blockToSectionCoord(minY); sectionY <= SectionPos.blockToSectionCoord(maxY); sectionY++) {
+            int index = chunk.getSectionIndexFromSectionY(sectionY);
+            if (index < 0 || index >= chunk.getSectionsCount()) continue;
+
+            LevelChunkSection section = chunk.getSection(index);
+            if (!section.hasOnlyAir() && section.maybeHas(LedgerSelectionJob::isCabinetState)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCabinetState(BlockState state) {
+        return state.getBlock() instanceof FilingCabinetBlock || state.getBlock() instanceof FluidCabinetBlock;
+    }
+
+    private boolean isInSelection(BlockPos pos) {
+        return pos.getX() >= minX && pos.getX() <= maxX
+                && pos.getY() >= minY && pos.getY() <= maxY
+                && pos.getZ() >= minZ && pos.getZ() <= maxZ;
+    }
+
+    private void finish(boolean cancelled) {
+        Component message;
+        if (cancelled) {
+            message = Component.translatable("item.realfilingreborn.ledger.multi.cancelled", processedCount);
+        } else if (mode == LedgerData.OperationMode.ADD) {
+            message = Component.translatable("item.realfilingreborn.ledger.multi.linked", processedCount);
+        } else {
+            message = Component.translatable("item.realfilingreborn.ledger.multi.unlinked", processedCount);
+        }
+        player.displayClientMessage(message, true);
+    }
+}
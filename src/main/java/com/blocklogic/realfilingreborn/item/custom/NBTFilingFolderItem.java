@@ -3,9 +3,12 @@ package com.blocklogic.realfilingreborn.item.custom;
 import com.blocklogic.realfilingreborn.RealFilingReborn;
 import com.blocklogic.realfilingreborn.config.Config;
 import com.blocklogic.realfilingreborn.screen.custom.FilingFolderMenu;
+import com.blocklogic.realfilingreborn.util.PersistentList;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.component.DataComponentType;
 import net.minecraft.core.component.DataComponents;
@@ -13,6 +16,7 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.network.RegistryFriendlyByteBuf;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.codec.ByteBufCodecs;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.resources.ResourceLocation;
@@ -23,6 +27,7 @@ import net.minecraft.world.SimpleMenuProvider;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.ItemStackLinkedSet;
 import net.minecraft.world.item.TooltipFlag;
 import net.minecraft.world.item.alchemy.PotionContents;
 import net.minecraft.world.item.component.ItemLore;
@@ -30,6 +35,7 @@ import net.minecraft.world.item.enchantment.ItemEnchantments;
 import net.minecraft.world.level.Level;
 import net.neoforged.neoforge.registries.DeferredHolder;
 import net.neoforged.neoforge.registries.DeferredRegister;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,29 +43,159 @@ import java.util.Optional;
 
 public class NBTFilingFolderItem extends Item {
 
-    public record SerializedItemStack(ItemStack stack) {}
+    public record SerializedItemStack(ItemStack stack, int count) {
+        public SerializedItemStack(ItemStack stack) {
+            this(stack, 1);
+        }
+    }
 
     public record NBTFolderContents(
             Optional<ResourceLocation> storedItemId,
-            List<SerializedItemStack> storedItems
-    ) {}
+            List<SerializedItemStack> storedItems,
+            int totalCount
+    ) {
+        public NBTFolderContents {
+            storedItems = storedItems != null ? PersistentList.copyOf(storedItems) : PersistentList.empty();
+        }
+
+        public NBTFolderContents(Optional<ResourceLocation> storedItemId, List<SerializedItemStack> storedItems) {
+            this(storedItemId, storedItems, sumCounts(storedItems));
+        }
+
+        private static int sumCounts(@Nullable List<SerializedItemStack> items) {
+            int total = 0;
+            if (items != null) {
+                for (SerializedItemStack entry : items) {
+                    total += entry.count();
+                }
+            }
+            return total;
+        }
+
+        public PersistentList<SerializedItemStack> items() {
+            return (PersistentList<SerializedItemStack>) storedItems;
+        }
+
+        public NBTFolderContents withAppended(ResourceLocation itemId, ItemStack stack, int count) {
+            return withAppended(Optional.of(itemId), stack, count);
+        }
+
+        public NBTFolderContents withAppended(ItemStack stack, int count) {
+            return withAppended(storedItemId, stack, count);
+        }
+
+        private NBTFolderContents withAppended(Optional<ResourceLocation> itemId, ItemStack stack, int count) {
+            PersistentList<SerializedItemStack> items = items();
+            if (count <= 0) {
+                return new NBTFolderContents(itemId, items, totalCount);
+            }
+
+            if (!items.isEmpty() && ItemStack.isSameItemSameComponents(items.last().stack(), stack)) {
+                SerializedItemStack last = items.last();
+                return new NBTFolderContents(itemId, items.with(items.size() - 1, new SerializedItemStack(last.stack(), last.count() + count)), totalCount + count);
+            }
+
+            return new NBTFolderContents(itemId, items.append(new SerializedItemStack(stack.copyWithCount(1), count)), totalCount + count);
+        }
+
+        public NBTFolderContents withoutLast(int count) {
+            PersistentList<SerializedItemStack> items = items();
+            int remaining = count;
+
+            while (remaining > 0 && !items.isEmpty()) {
+                SerializedItemStack last = items.last();
+                if (last.count() > remaining) {
+                    items = items.with(items.size() - 1, new SerializedItemStack(last.stack(), last.count() - remaining));
+                    remaining = 0;
+                } else {
+                    remaining -= last.count();
+                    items = items.pop();
+                }
+            }
+
+            return new NBTFolderContents(storedItemId, items, totalCount - (count - remaining));
+        }
+
+        public NBTFolderContents withoutEntry(int index, int count) {
+            PersistentList<SerializedItemStack> items = items();
+            if (index < 0 || index >= items.size() || count <= 0) {
+                return this;
+            }
 
-    private static final Codec<SerializedItemStack> SERIALIZED_STACK_CODEC =
-            ItemStack.CODEC.xmap(SerializedItemStack::new, SerializedItemStack::stack);
+            SerializedItemStack entry = items.get(index);
+            if (entry.count() > count) {
+                return new NBTFolderContents(storedItemId, items.with(index, new SerializedItemStack(entry.stack(), entry.count() - count)), totalCount - count);
+            }
+
+            int lastIndex = items.size() - 1;
+            if (index != lastIndex) {
+                items = items.with(index, items.last());
+            }
+            return new NBTFolderContents(storedItemId, items.pop(), totalCount - entry.count());
+        }
+
+        public NBTFolderContents withTail(int keepCount, List<SerializedItemStack> appended) {
+            PersistentList<SerializedItemStack> items = items();
+            int total = totalCount;
+
+            while (items.size() > Math.max(0, keepCount)) {
+                total -= items.last().count();
+                items = items.pop();
+            }
+            for (SerializedItemStack entry : appended) {
+                items = items.append(entry);
+                total += entry.count();
+            }
+
+            return new NBTFolderContents(storedItemId, items, total);
+        }
+    }
+
+    private static final Codec<SerializedItemStack> GROUPED_STACK_CODEC = RecordCodecBuilder.create(instance ->
+            instance.group(
+                    ItemStack.CODEC.fieldOf("stack").forGetter(SerializedItemStack::stack),
+                    Codec.INT.optionalFieldOf("count", 1).forGetter(SerializedItemStack::count)
+            ).apply(instance, SerializedItemStack::new)
+    );
 
-    private static final StreamCodec<RegistryFriendlyByteBuf, SerializedItemStack> SERIALIZED_STACK_STREAM_CODEC =
+    private static final Codec<SerializedItemStack> SERIALIZED_STACK_CODEC = Codec.withAlternative(
+            GROUPED_STACK_CODEC,
+            ItemStack.CODEC.xmap(SerializedItemStack::new, SerializedItemStack::stack)
+    );
+
+    public static final StreamCodec<RegistryFriendlyByteBuf, SerializedItemStack> SERIALIZED_STACK_STREAM_CODEC =
             StreamCodec.composite(
                     ItemStack.STREAM_CODEC, SerializedItemStack::stack,
+                    ByteBufCodecs.VAR_INT, SerializedItemStack::count,
                     SerializedItemStack::new
             );
 
     private static final Codec<NBTFolderContents> NBT_FOLDER_CONTENTS_CODEC = RecordCodecBuilder.create(instance ->
             instance.group(
                     ResourceLocation.CODEC.optionalFieldOf("storedItemId").forGetter(NBTFolderContents::storedItemId),
-                    Codec.list(SERIALIZED_STACK_CODEC).fieldOf("storedItems").forGetter(NBTFolderContents::storedItems)
+                    Codec.list(SERIALIZED_STACK_CODEC).xmap(NBTFilingFolderItem::groupEntries, items -> items).fieldOf("storedItems").forGetter(NBTFolderContents::storedItems)
             ).apply(instance, NBTFolderContents::new)
     );
 
+    private static List<SerializedItemStack> groupEntries(List<SerializedItemStack> entries) {
+        Object2IntMap<ItemStack> indexByStack = new Object2IntOpenCustomHashMap<>(ItemStackLinkedSet.TYPE_AND_TAG);
+        PersistentList<SerializedItemStack> grouped = PersistentList.empty();
+
+        for (SerializedItemStack entry : entries) {
+            if (entry.count() <= 0 || entry.stack().isEmpty()) continue;
+
+            int index = indexByStack.getOrDefault(entry.stack(), -1);
+            if (index >= 0) {
+                SerializedItemStack existing = grouped.get(index);
+                grouped = grouped.with(index, new SerializedItemStack(existing.stack(), existing.count() + entry.count()));
+            } else {
+                indexByStack.put(entry.stack(), grouped.size());
+                grouped = grouped.append(new SerializedItemStack(entry.stack().copyWithCount(1), entry.count()));
+            }
+        }
+        return grouped;
+    }
+
     public static final StreamCodec<ByteBuf, ResourceLocation> RESOURCE_LOCATION_STREAM_CODEC =
             ByteBufCodecs.STRING_UTF8
                     .map(ResourceLocation::parse, ResourceLocation::toString);
@@ -195,17 +331,9 @@ public class NBTFilingFolderItem extends Item {
             return InteractionResultHolder.fail(folderStack);
         }
 
-        List<SerializedItemStack> items = new ArrayList<>(contents.storedItems());
-        SerializedItemStack serializedItem = items.remove(items.size() - 1);
-
-        ItemStack extracted = serializedItem.stack().copy();
-
-        NBTFolderContents newContents = new NBTFolderContents(
-                contents.storedItemId(),
-                items
-        );
+        ItemStack extracted = contents.items().last().stack().copy();
 
-        folderStack.set(NBT_FOLDER_CONTENTS.value(), newContents);
+        folderStack.set(NBT_FOLDER_CONTENTS.value(), contents.withoutLast(1));
 
         if (player.getInventory().add(extracted)) {
             return InteractionResultHolder.success(folderStack);
@@ -232,24 +360,12 @@ public class NBTFilingFolderItem extends Item {
             return InteractionResultHolder.fail(folderStack);
         }
 
-        List<SerializedItemStack> currentItems = contents.storedItems() != null ? contents.storedItems() : new ArrayList<>();
-        if (currentItems.size() >= Config.getMaxNBTFolderStorage()) {
+        if (contents.totalCount() >= Config.getMaxNBTFolderStorage()) {
             player.displayClientMessage(Component.translatable("message.realfilingreborn.nbt_folder_full"), true);
             return InteractionResultHolder.fail(folderStack);
         }
 
-        List<SerializedItemStack> newItems = new ArrayList<>(currentItems);
-
-        ItemStack itemCopy = itemToStore.copy();
-        itemCopy.setCount(1);
-        newItems.add(new SerializedItemStack(itemCopy));
-
-        NBTFolderContents newContents = new NBTFolderContents(
-                Optional.of(newItemId),
-                newItems
-        );
-
-        folderStack.set(NBT_FOLDER_CONTENTS.value(), newContents);
+        folderStack.set(NBT_FOLDER_CONTENTS.value(), contents.withAppended(newItemId, itemToStore, 1));
 
         itemToStore.shrink(1);
 
@@ -269,7 +385,7 @@ public class NBTFilingFolderItem extends Item {
 
             if (contents.storedItems() != null && !contents.storedItems().isEmpty()) {
                 tooltip.add(Component.translatable("tooltip.realfilingreborn.nbt_item_count",
-                                Component.literal(String.valueOf(contents.storedItems().size())).withStyle(ChatFormatting.GREEN),
+                                Component.literal(String.valueOf(contents.totalCount())).withStyle(ChatFormatting.GREEN),
                                 Component.literal(String.valueOf(Config.getMaxNBTFolderStorage())).withStyle(ChatFormatting.GREEN))
                         .withStyle(ChatFormatting.GRAY));
 
@@ -279,10 +395,12 @@ public class NBTFilingFolderItem extends Item {
 
                     int maxToShow = Math.min(3, contents.storedItems().size());
                     for (int i = 0; i < maxToShow; i++) {
-                        ItemStack storedItem = contents.storedItems().get(i).stack();
-                        Component itemName = storedItem.getDisplayName();
-                        tooltip.add(Component.literal(" - ").append(itemName)
-                                .withStyle(ChatFormatting.DARK_GRAY));
+                        SerializedItemStack entry = contents.storedItems().get(i);
+                        MutableComponent line = Component.literal(" - ").append(entry.stack().getDisplayName());
+                        if (entry.count() > 1) {
+                            line.append(" x" + entry.count());
+                        }
+                        tooltip.add(line.withStyle(ChatFormatting.DARK_GRAY));
                     }
 
                     if (contents.storedItems().size() > maxToShow) {
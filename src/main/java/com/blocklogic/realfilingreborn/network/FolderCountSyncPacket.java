@@ -0,0 +1,38 @@
+package com.blocklogic.realfilingreborn.network;
+
+import com.blocklogic.realfilingreborn.block.entity.FilingCabinetBlockEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+public record FolderCountSyncPacket(BlockPos pos, int slot, long count) implements CustomPacketPayload {
+
+    public static final Type<FolderCountSyncPacket> TYPE = new Type<>(ResourceLocation.fromNamespaceAndPath("realfilingreborn", "folder_count_sync"));
+
+    public static final StreamCodec<FriendlyByteBuf, FolderCountSyncPacket> STREAM_CODEC =
+            StreamCodec.composite(
+                    BlockPos.STREAM_CODEC, FolderCountSyncPacket::pos,
+                    ByteBufCodecs.VAR_INT, FolderCountSyncPacket::slot,
+                    ByteBufCodecs.VAR_LONG, FolderCountSyncPacket::count,
+                    FolderCountSyncPacket::new
+            );
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public static void handle(FolderCountSyncPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            Level level = context.player().level();
+            if (level.isLoaded(packet.pos()) && level.getBlockEntity(packet.pos()) instanceof FilingCabinetBlockEntity cabinet) {
+                cabinet.applyFolderCountSync(packet.slot(), packet.count());
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.blocklogic.realfilingreborn.network;
+
+import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
+import com.blocklogic.realfilingreborn.item.custom.LedgerItem;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.network.PacketDistributor;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+public record IndexCabinetsRequestPacket(BlockPos pos) implements CustomPacketPayload {
+
+    public static final Type<IndexCabinetsRequestPacket> TYPE = new Type<>(ResourceLocation.fromNamespaceAndPath("realfilingreborn", "index_cabinets_request"));
+
+    public static final StreamCodec<FriendlyByteBuf, IndexCabinetsRequestPacket> STREAM_CODEC =
+            StreamCodec.composite(
+                    BlockPos.STREAM_CODEC, IndexCabinetsRequestPacket::pos,
+                    IndexCabinetsRequestPacket::new
+            );
+
+    private static final double MAX_REQUEST_DISTANCE_SQ = 128 * 128;
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public static void handle(IndexCabinetsRequestPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (!(context.player() instanceof ServerPlayer serverPlayer)) return;
+
+            if (!(serverPlayer.getMainHandItem().getItem() instanceof LedgerItem)
+                    && !(serverPlayer.getOffhandItem().getItem() instanceof LedgerItem)) {
+                return;
+            }
+
+            Level level = serverPlayer.level();
+            BlockPos pos = packet.pos();
+            if (serverPlayer.distanceToSqr(pos.getX(), pos.getY(), pos.getZ()) > MAX_REQUEST_DISTANCE_SQ || !level.isLoaded(pos)) {
+                return;
+            }
+
+            if (level.getBlockEntity(pos) instanceof FilingIndexBlockEntity index) {
+                PacketDistributor.sendToPlayer(serverPlayer,
+                        new IndexCabinetsSyncPacket(pos, index.getLinkVersion(), index.getPackedLinkedCabinets()));
+            }
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.blocklogic.realfilingreborn.network;
+
+import com.blocklogic.realfilingreborn.block.entity.FilingIndexBlockEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+public record IndexCabinetsSyncPacket(BlockPos pos, int version, long[] cabinets) implements CustomPacketPayload {
+
+    public static final Type<IndexCabinetsSyncPacket> TYPE = new Type<>(ResourceLocation.fromNamespaceAndPath("realfilingreborn", "index_cabinets_sync"));
+
+    private static final StreamCodec<FriendlyByteBuf, long[]> LONG_ARRAY_CODEC =
+            StreamCodec.of((buf, value) -> buf.writeLongArray(value), buf -> buf.readLongArray());
+
+    public static final StreamCodec<FriendlyByteBuf, IndexCabinetsSyncPacket> STREAM_CODEC =
+            StreamCodec.composite(
+                    BlockPos.STREAM_CODEC, IndexCabinetsSyncPacket::pos,
+                    ByteBufCodecs.VAR_INT, IndexCabinetsSyncPacket::version,
+                    LONG_ARRAY_CODEC, IndexCabinetsSyncPacket::cabinets,
+                    IndexCabinetsSyncPacket::new
+            );
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public static void handle(IndexCabinetsSyncPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            Level level = context.player().level();
+            if (level.isLoaded(packet.pos()) && level.getBlockEntity(packet.pos()) instanceof FilingIndexBlockEntity index) {
+                index.applyLinkedCabinetPositions(packet.version(), packet.cabinets());
+            }
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.blocklogic.realfilingreborn.network;
+
+import com.blocklogic.realfilingreborn.block.entity.FilingCabinetBlockEntity;
+import com.blocklogic.realfilingreborn.item.custom.NBTFilingFolderItem;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+import java.util.List;
+
+public record NBTFolderSyncPacket(BlockPos pos, int slot, int keepCount, List<NBTFilingFolderItem.SerializedItemStack> appended) implements CustomPacketPayload {
+
+    public static final Type<NBTFolderSyncPacket> TYPE = new Type<>(ResourceLocation.fromNamespaceAndPath("realfilingreborn", "nbt_folder_sync"));
+
+    public static final StreamCodec<RegistryFriendlyByteBuf, NBTFolderSyncPacket> STREAM_CODEC =
+            StreamCodec.composite(
+                    BlockPos.STREAM_CODEC, NBTFolderSyncPacket::pos,
+                    ByteBufCodecs.VAR_INT, NBTFolderSyncPacket::slot,
+                    ByteBufCodecs.VAR_INT, NBTFolderSyncPacket::keepCount,
+                    NBTFilingFolderItem.SERIALIZED_STACK_STREAM_CODEC.apply(ByteBufCodecs.list(256)), NBTFolderSyncPacket::appended,
+                    NBTFolderSyncPacket::new
+            );
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public static void handle(NBTFolderSyncPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            Level level = context.player().level();
+            if (level.isLoaded(packet.pos()) && level.getBlockEntity(packet.pos()) instanceof FilingCabinetBlockEntity cabinet) {
+                cabinet.applyNBTFolderSync(packet.slot(), packet.keepCount(), packet.appended());
+            }
+        });
+    }
+}
@@ -17,5 +17,29 @@ public class NetworkHandler {
                 ExtractionPacket.STREAM_CODEC,
                 ExtractionPacket::handle
         );
+
+        registrar.playToClient(
+                FolderCountSyncPacket.TYPE,
+                FolderCountSyncPacket.STREAM_CODEC,
+                FolderCountSyncPacket::handle
+        );
+
+        registrar.playToClient(
+                NBTFolderSyncPacket.TYPE,
+                NBTFolderSyncPacket.STREAM_CODEC,
+                NBTFolderSyncPacket::handle
+        );
+
+        registrar.playToServer(
+                IndexCabinetsRequestPacket.TYPE,
+                IndexCabinetsRequestPacket.STREAM_CODEC,
+                IndexCabinetsRequestPacket::handle
+        );
+
+        registrar.playToClient(
+                IndexCabinetsSyncPacket.TYPE,
+                IndexCabinetsSyncPacket.STREAM_CODEC,
+                IndexCabinetsSyncPacket::handle
+        );
     }
 }
\ No newline at end of file
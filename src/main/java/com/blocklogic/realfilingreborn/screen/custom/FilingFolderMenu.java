@@ -4,6 +4,7 @@ import com.blocklogic.realfilingreborn.config.Config;
 import com.blocklogic.realfilingreborn.item.custom.FilingFolderItem;
 import com.blocklogic.realfilingreborn.item.custom.NBTFilingFolderItem;
 import com.blocklogic.realfilingreborn.screen.ModMenuTypes;
+import com.blocklogic.realfilingreborn.util.PersistentList;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
@@ -17,8 +18,6 @@ import net.minecraft.world.item.ItemStack;
 import net.neoforged.neoforge.items.ItemStackHandler;
 import net.neoforged.neoforge.items.SlotItemHandler;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 
 public class FilingFolderMenu extends AbstractContainerMenu {
@@ -87,13 +86,8 @@ public class FilingFolderMenu extends AbstractContainerMenu {
             NBTFilingFolderItem.NBTFolderContents currentContents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
 
             if (currentContents == null || currentContents.storedItemId().isEmpty()) {
-                List<NBTFilingFolderItem.SerializedItemStack> items = new ArrayList<>();
-                ItemStack singleItem = assignedItem.copy();
-                singleItem.setCount(1);
-                items.add(new NBTFilingFolderItem.SerializedItemStack(singleItem));
-
-                NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                        Optional.of(itemId), items);
+                NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(Optional.empty(), PersistentList.empty())
+                        .withAppended(itemId, assignedItem, 1);
                 folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
 
                 assignmentInventory.setStackInSlot(0, ItemStack.EMPTY);
@@ -150,7 +144,7 @@ public class FilingFolderMenu extends AbstractContainerMenu {
         if (isNBTFolder) {
             NBTFilingFolderItem.NBTFolderContents contents = folderStack.get(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value());
             if (contents != null && contents.storedItemId().isPresent()) {
-                int count = contents.storedItems().size();
+                int count = contents.totalCount();
                 return Component.translatable("gui.realfilingreborn.current_nbt_count", count, Config.getMaxNBTFolderStorage());
             }
         } else {
@@ -183,7 +177,7 @@ public class FilingFolderMenu extends AbstractContainerMenu {
 
         ItemStack dummyStack = new ItemStack(item);
         int maxStackSize = item.getMaxStackSize(dummyStack);
-        int extractAmount = Math.min(contents.count(), maxStackSize);
+        int extractAmount = (int) Math.min(contents.count(), maxStackSize);
 
         if (extractAmount <= 0) return;
 
@@ -191,7 +185,7 @@ public class FilingFolderMenu extends AbstractContainerMenu {
 
         Player player = playerInventory.player;
         if (player.getInventory().add(extractedStack)) {
-            int newCount = contents.count() - extractAmount;
+            long newCount = contents.count() - extractAmount;
             FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
                     contents.storedItemId(),
                     Math.max(0, newCount)
@@ -200,7 +194,7 @@ public class FilingFolderMenu extends AbstractContainerMenu {
         } else {
             player.drop(extractedStack, false);
 
-            int newCount = contents.count() - extractAmount;
+            long newCount = contents.count() - extractAmount;
             FilingFolderItem.FolderContents newContents = new FilingFolderItem.FolderContents(
                     contents.storedItemId(),
                     Math.max(0, newCount)
@@ -217,26 +211,13 @@ public class FilingFolderMenu extends AbstractContainerMenu {
             return;
         }
 
-        List<NBTFilingFolderItem.SerializedItemStack> items = new ArrayList<>(contents.storedItems());
-        NBTFilingFolderItem.SerializedItemStack serializedItem = items.remove(items.size() - 1);
-        ItemStack extracted = serializedItem.stack().copy();
+        ItemStack extracted = contents.items().last().stack().copy();
 
         Player player = playerInventory.player;
-        if (player.getInventory().add(extracted)) {
-            NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                    contents.storedItemId(),
-                    items
-            );
-            folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
-        } else {
+        if (!player.getInventory().add(extracted)) {
             player.drop(extracted, false);
-
-            NBTFilingFolderItem.NBTFolderContents newContents = new NBTFilingFolderItem.NBTFolderContents(
-                    contents.storedItemId(),
-                    items
-            );
-            folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), newContents);
         }
+        folderStack.set(NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value(), contents.withoutLast(1));
     }
 
     @Override
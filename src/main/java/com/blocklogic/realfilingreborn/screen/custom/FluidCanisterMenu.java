@@ -135,8 +135,8 @@ public class FluidCanisterMenu extends AbstractContainerMenu {
 
         FluidCanisterItem.CanisterContents contents = canisterStack.get(FluidCanisterItem.CANISTER_CONTENTS.value());
         if (contents != null && contents.storedFluidId().isPresent()) {
-            int buckets = contents.amount() / 1000;
-            int millibuckets = contents.amount() % 1000;
+            long buckets = contents.amount() / 1000;
+            long millibuckets = contents.amount() % 1000;
             String amountText = buckets > 0 ?
                     (millibuckets > 0 ? buckets + "." + (millibuckets / 100) + "B" : buckets + "B") :
                     millibuckets + "mB";
@@ -188,7 +188,7 @@ public class FluidCanisterMenu extends AbstractContainerMenu {
             return;
         }
 
-        int newAmount = contents.amount() - 1000;
+        long newAmount = contents.amount() - 1000;
         FluidCanisterItem.CanisterContents newContents = new FluidCanisterItem.CanisterContents(
                 contents.storedFluidId(),
                 Math.max(0, newAmount)
@@ -0,0 +1,87 @@
+package com.blocklogic.realfilingreborn.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class BoundedCache<K, V> {
+    private final int capacity;
+    private final Map<K, Integer> index;
+    private final Object[] keys;
+    private final Object[] values;
+    private final boolean[] referenced;
+    private int size = 0;
+    private int hand = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    public BoundedCache(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        this.index = new HashMap<>(this.capacity * 2);
+        this.keys = new Object[this.capacity];
+        this.values = new Object[this.capacity];
+        this.referenced = new boolean[this.capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V get(K key, Function<? super K, ? extends V> loader) {
+        Integer slot = index.get(key);
+        if (slot != null) {
+            hits++;
+            referenced[slot] = true;
+            return (V) values[slot];
+        }
+
+        misses++;
+        V value = loader.apply(key);
+        if (value == null) {
+            return null;
+        }
+
+        int target = size < capacity ? size++ : evict();
+        keys[target] = key;
+        values[target] = value;
+        referenced[target] = false;
+        index.put(key, target);
+        return value;
+    }
+
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % capacity;
+        }
+
+        int victim = hand;
+        index.remove(keys[victim]);
+        hand = (hand + 1) % capacity;
+        return victim;
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        Arrays.fill(referenced, false);
+        size = 0;
+        hand = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
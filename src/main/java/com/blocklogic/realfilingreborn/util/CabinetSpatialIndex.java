@@ -0,0 +1,102 @@
+package com.blocklogic.realfilingreborn.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+public class CabinetSpatialIndex {
+    private static final Map<Level, CabinetSpatialIndex> INDEXES = new WeakHashMap<>();
+
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> sections = new Long2ObjectOpenHashMap<>();
+
+    @Nullable
+    public static CabinetSpatialIndex get(@Nullable Level level) {
+        if (level instanceof ServerLevel serverLevel) {
+            return INDEXES.computeIfAbsent(serverLevel, l -> new CabinetSpatialIndex());
+        }
+        return null;
+    }
+
+    public void add(BlockPos cabinetPos) {
+        long sectionKey = SectionPos.asLong(cabinetPos);
+        LongOpenHashSet cabinets = sections.get(sectionKey);
+        if (cabinets == null) {
+            cabinets = new LongOpenHashSet();
+            sections.put(sectionKey, cabinets);
+        }
+
+        cabinets.add(cabinetPos.asLong());
+    }
+
+    public void remove(BlockPos cabinetPos) {
+        long sectionKey = SectionPos.asLong(cabinetPos);
+        LongOpenHashSet cabinets = sections.get(sectionKey);
+        if (cabinets == null) return;
+
+        if (cabinets.remove(cabinetPos.asLong()) && cabinets.isEmpty()) {
+            sections.remove(sectionKey);
+        }
+    }
+
+    public void clear() {
+        sections.clear();
+    }
+
+    public List<BlockPos> getCabinetsInRange(BlockPos center, int range) {
+        double rangeSq = (double) range * range;
+        int minSectionX = SectionPos.blockToSectionCoord(center.getX() - range);
+        int minSectionY = SectionPos.blockToSectionCoord(center.getY() - range);
+        int minSectionZ = SectionPos.blockToSectionCoord(center.getZ() - range);
+        int maxSectionX = SectionPos.blockToSectionCoord(center.getX() + range);
+        int maxSectionY = SectionPos.blockToSectionCoord(center.getY() + range);
+        int maxSectionZ = SectionPos.blockToSectionCoord(center.getZ() + range);
+
+        List<BlockPos> result = new ArrayList<>();
+        long sectionCount = (long) (maxSectionX - minSectionX + 1) * (maxSectionY - minSectionY + 1) * (maxSectionZ - minSectionZ + 1);
+
+        if (sectionCount > sections.size()) {
+            for (Long2ObjectMap.Entry<LongOpenHashSet> entry : sections.long2ObjectEntrySet()) {
+                long sectionKey = entry.getLongKey();
+                int x = SectionPos.x(sectionKey);
+                int y = SectionPos.y(sectionKey);
+                int z = SectionPos.z(sectionKey);
+                if (x >= minSectionX && x <= maxSectionX && y >= minSectionY && y <= maxSectionY && z >= minSectionZ && z <= maxSectionZ) {
+                    collect(entry.getValue(), center, rangeSq, result);
+                }
+            }
+            return result;
+        }
+
+        for (int x = minSectionX; x <= maxSectionX; x++) {
+            for (int y = minSectionY; y <= maxSectionY; y++) {
+                for (int z = minSectionZ; z <= maxSectionZ; z++) {
+                    LongOpenHashSet cabinets = sections.get(SectionPos.asLong(x, y, z));
+                    if (cabinets != null) {
+                        collect(cabinets, center, rangeSq, result);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void collect(LongOpenHashSet cabinets, BlockPos center, double rangeSq, List<BlockPos> result) {
+        for (LongIterator it = cabinets.iterator(); it.hasNext(); ) {
+            BlockPos cabinetPos = BlockPos.of(it.nextLong());
+            if (center.distSqr(cabinetPos) <= rangeSq) {
+                result.add(cabinetPos);
+            }
+        }
+    }
+}
@@ -8,39 +8,36 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.level.material.Fluid;
 import net.minecraft.world.level.material.Fluids;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
 import net.neoforged.neoforge.fluids.FluidType;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
+@EventBusSubscriber(modid = "realfilingreborn")
 public class FluidHelper {
-    private static final Map<ResourceLocation, Boolean> VALID_FLUID_CACHE = new ConcurrentHashMap<>();
-    private static final Map<ResourceLocation, ItemStack> FLUID_BUCKET_CACHE = new ConcurrentHashMap<>();
-    private static final Map<ResourceLocation, String> FLUID_NAME_CACHE = new ConcurrentHashMap<>();
-
     private static final int MAX_CACHE_SIZE = 1000;
 
+    private static final BoundedCache<Fluid, Boolean> VALID_FLUID_CACHE = new BoundedCache<>(MAX_CACHE_SIZE);
+    private static final BoundedCache<ResourceLocation, String> FLUID_NAME_CACHE = new BoundedCache<>(MAX_CACHE_SIZE);
+    private static volatile Map<Fluid, Item> bucketsByFluid;
+
     public static boolean isValidFluid(Fluid fluid) {
         if (fluid == null || fluid == Fluids.EMPTY) {
             return false;
         }
 
-        ResourceLocation fluidId = getFluidId(fluid);
-        if (fluidId == null) {
-            return false;
-        }
-
-        if (VALID_FLUID_CACHE.size() > MAX_CACHE_SIZE) {
-            VALID_FLUID_CACHE.clear();
-        }
-
-        return VALID_FLUID_CACHE.computeIfAbsent(fluidId, id -> {
-            if (!BuiltInRegistries.FLUID.containsKey(id)) {
+        return VALID_FLUID_CACHE.get(fluid, f -> {
+            ResourceLocation id = getFluidId(f);
+            if (id == null || !BuiltInRegistries.FLUID.containsKey(id)) {
                 return false;
             }
 
             try {
-                FluidType fluidType = fluid.getFluidType();
+                FluidType fluidType = f.getFluidType();
                 return fluidType != null;
             } catch (Exception e) {
                 return false;
@@ -91,34 +88,31 @@ public class FluidHelper {
             return ItemStack.EMPTY;
         }
 
-        if (FLUID_BUCKET_CACHE.size() > MAX_CACHE_SIZE) {
-            FLUID_BUCKET_CACHE.clear();
+        Item bucket = getBucketsByFluid().get(getFluidFromId(fluidId));
+        return bucket != null ? new ItemStack(bucket) : ItemStack.EMPTY;
+    }
+
+    private static Map<Fluid, Item> getBucketsByFluid() {
+        Map<Fluid, Item> buckets = bucketsByFluid;
+        if (buckets == null) {
+            rebuildBucketMap();
+            buckets = bucketsByFluid;
         }
+        return buckets;
+    }
 
-        ItemStack cachedStack = FLUID_BUCKET_CACHE.computeIfAbsent(fluidId, id -> {
-            if (id.equals(Fluids.WATER.builtInRegistryHolder().key().location())) {
-                return new ItemStack(Items.WATER_BUCKET);
-            } else if (id.equals(Fluids.LAVA.builtInRegistryHolder().key().location())) {
-                return new ItemStack(Items.LAVA_BUCKET);
-            }
-
-            try {
-                Fluid fluid = BuiltInRegistries.FLUID.get(id);
-                if (fluid != null && fluid != Fluids.EMPTY) {
-                    for (Item item : BuiltInRegistries.ITEM) {
-                        if (item instanceof BucketItem bucketItem && bucketItem.content == fluid) {
-                            return new ItemStack(item);
-                        }
-                    }
-                }
-            } catch (Exception e) {
+    public static void rebuildBucketMap() {
+        Map<Fluid, Item> buckets = new IdentityHashMap<>();
+        buckets.put(Fluids.WATER, Items.WATER_BUCKET);
+        buckets.put(Fluids.LAVA, Items.LAVA_BUCKET);
 
+        for (Item item : BuiltInRegistries.ITEM) {
+            if (item instanceof BucketItem bucketItem && bucketItem.content != Fluids.EMPTY) {
+                buckets.putIfAbsent(bucketItem.content, item);
             }
+        }
 
-            return ItemStack.EMPTY;
-        });
-
-        return cachedStack.copy();
+        bucketsByFluid = Collections.unmodifiableMap(buckets);
     }
 
     public static String getFluidDisplayName(ResourceLocation fluidId) {
@@ -126,31 +120,21 @@ public class FluidHelper {
             return "Unknown Fluid";
         }
 
-        if (FLUID_NAME_CACHE.size() > MAX_CACHE_SIZE) {
-            FLUID_NAME_CACHE.clear();
-        }
-
-        return FLUID_NAME_CACHE.computeIfAbsent(fluidId, id -> {
-            if (id.equals(Fluids.WATER.builtInRegistryHolder().key().location())) {
+        return FLUID_NAME_CACHE.get(fluidId, id -> {
+            Fluid fluid = getFluidFromId(id);
+            if (fluid == Fluids.EMPTY) {
+                return formatFluidName(id.getPath());
+            } else if (fluid == Fluids.WATER) {
                 return "Water";
-            } else if (id.equals(Fluids.LAVA.builtInRegistryHolder().key().location())) {
+            } else if (fluid == Fluids.LAVA) {
                 return "Lava";
             }
 
             try {
-                Fluid fluid = BuiltInRegistries.FLUID.get(id);
-                if (fluid != null && fluid != Fluids.EMPTY) {
-                    try {
-                        return fluid.getFluidType().getDescription().getString();
-                    } catch (Exception e) {
-                        return formatFluidName(id.getPath());
-                    }
-                }
+                return fluid.getFluidType().getDescription().getString();
             } catch (Exception e) {
-
+                return formatFluidName(id.getPath());
             }
-
-            return formatFluidName(id.getPath());
         });
     }
 
@@ -199,7 +183,13 @@ public class FluidHelper {
 
     public static void clearCaches() {
         VALID_FLUID_CACHE.clear();
-        FLUID_BUCKET_CACHE.clear();
         FLUID_NAME_CACHE.clear();
+        bucketsByFluid = null;
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        clearCaches();
+        rebuildBucketMap();
     }
 }
\ No newline at end of file
@@ -1,21 +1,18 @@
 package com.blocklogic.realfilingreborn.util;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 public class FormattingCache {
-    private static final Map<Integer, String> ITEM_COUNT_CACHE = new ConcurrentHashMap<>();
-    private static final Map<Integer, String> FLUID_AMOUNT_CACHE = new ConcurrentHashMap<>();
-
     private static final int MAX_CACHE_SIZE = 10000;
 
-    public static String getFormattedItemCount(int count) {
-        if (ITEM_COUNT_CACHE.size() > MAX_CACHE_SIZE) {
-            ITEM_COUNT_CACHE.clear();
-        }
+    private static final BoundedCache<Long, String> ITEM_COUNT_CACHE = new BoundedCache<>(MAX_CACHE_SIZE);
+    private static final BoundedCache<Long, String> FLUID_AMOUNT_CACHE = new BoundedCache<>(MAX_CACHE_SIZE);
 
-        return ITEM_COUNT_CACHE.computeIfAbsent(count, c -> {
-            if (c >= 1000000) {
+    public static String getFormattedItemCount(long count) {
+        return ITEM_COUNT_CACHE.get(count, c -> {
+            if (c >= 1000000000000L) {
+                return String.format("%.1fT", c / 1000000000000.0);
+            } else if (c >= 1000000000) {
+                return String.format("%.1fB", c / 1000000000.0);
+            } else if (c >= 1000000) {
                 return String.format("%.1fM", c / 1000000.0);
             } else if (c >= 1000) {
                 return String.format("%.1fK", c / 1000.0);
@@ -25,12 +22,8 @@ public class FormattingCache {
         });
     }
 
-    public static String getFormattedFluidAmount(int amount) {
-        if (FLUID_AMOUNT_CACHE.size() > MAX_CACHE_SIZE) {
-            FLUID_AMOUNT_CACHE.clear();
-        }
-
-        return FLUID_AMOUNT_CACHE.computeIfAbsent(amount, a -> {
+    public static String getFormattedFluidAmount(long amount) {
+        return FLUID_AMOUNT_CACHE.get(amount, a -> {
             if (a >= 1000000000) {
                 float mega = a / 1000000f;
                 return String.format("%.1fM", mega);
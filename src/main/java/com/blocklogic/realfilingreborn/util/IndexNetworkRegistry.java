@@ -0,0 +1,176 @@
+package com.blocklogic.realfilingreborn.util;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.saveddata.SavedData;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class IndexNetworkRegistry extends SavedData {
+    private static final String DATA_NAME = "realfilingreborn_index_networks";
+    private static final SavedData.Factory<IndexNetworkRegistry> FACTORY =
+            new SavedData.Factory<>(IndexNetworkRegistry::new, IndexNetworkRegistry::load, null);
+
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> controllerToCabinets = new Long2ObjectOpenHashMap<>();
+    private final Long2LongOpenHashMap cabinetToController = new Long2LongOpenHashMap();
+
+    @Nullable
+    public static IndexNetworkRegistry get(@Nullable Level level) {
+        if (level instanceof ServerLevel serverLevel) {
+            return serverLevel.getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+        }
+        return null;
+    }
+
+    public boolean hasController(BlockPos controllerPos) {
+        return controllerToCabinets.containsKey(controllerPos.asLong());
+    }
+
+    public void registerController(BlockPos controllerPos) {
+        if (controllerToCabinets.putIfAbsent(controllerPos.asLong(), new LongOpenHashSet()) == null) {
+            setDirty();
+        }
+    }
+
+    public Set<BlockPos> removeController(BlockPos controllerPos) {
+        LongOpenHashSet cabinets = controllerToCabinets.remove(controllerPos.asLong());
+        if (cabinets == null) {
+            return Set.of();
+        }
+
+        Set<BlockPos> removed = new HashSet<>();
+        for (LongIterator it = cabinets.iterator(); it.hasNext(); ) {
+            long cabinet = it.nextLong();
+            cabinetToController.remove(cabinet);
+            removed.add(BlockPos.of(cabinet));
+        }
+        setDirty();
+        return removed;
+    }
+
+    @Nullable
+    public BlockPos link(BlockPos controllerPos, BlockPos cabinetPos) {
+        long controller = controllerPos.asLong();
+        long cabinet = cabinetPos.asLong();
+
+        BlockPos previous = null;
+        if (cabinetToController.containsKey(cabinet)) {
+            long previousController = cabinetToController.get(cabinet);
+            if (previousController == controller) {
+                return null;
+            }
+            LongOpenHashSet previousCabinets = controllerToCabinets.get(previousController);
+            if (previousCabinets != null) {
+                previousCabinets.remove(cabinet);
+            }
+            previous = BlockPos.of(previousController);
+        }
+
+        cabinetToController.put(cabinet, controller);
+        cabinetsOf(controllerToCabinets, controller).add(cabinet);
+        setDirty();
+        return previous;
+    }
+
+    public boolean unlink(BlockPos controllerPos, BlockPos cabinetPos) {
+        long cabinet = cabinetPos.asLong();
+        if (!cabinetToController.containsKey(cabinet) || cabinetToController.get(cabinet) != controllerPos.asLong()) {
+            return false;
+        }
+
+        unlink(cabinetPos);
+        return true;
+    }
+
+    @Nullable
+    public BlockPos unlink(BlockPos cabinetPos) {
+        long cabinet = cabinetPos.asLong();
+        if (!cabinetToController.containsKey(cabinet)) {
+            return null;
+        }
+
+        long controller = cabinetToController.remove(cabinet);
+        LongOpenHashSet cabinets = controllerToCabinets.get(controller);
+        if (cabinets != null) {
+            cabinets.remove(cabinet);
+        }
+        setDirty();
+        return BlockPos.of(controller);
+    }
+
+    @Nullable
+    public BlockPos getController(BlockPos cabinetPos) {
+        long cabinet = cabinetPos.asLong();
+        return cabinetToController.containsKey(cabinet) ? BlockPos.of(cabinetToController.get(cabinet)) : null;
+    }
+
+    public Set<BlockPos> getCabinets(BlockPos controllerPos) {
+        LongOpenHashSet cabinets = controllerToCabinets.get(controllerPos.asLong());
+        if (cabinets == null || cabinets.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<BlockPos> result = new HashSet<>(cabinets.size());
+        for (LongIterator it = cabinets.iterator(); it.hasNext(); ) {
+            result.add(BlockPos.of(it.nextLong()));
+        }
+        return result;
+    }
+
+    private static LongOpenHashSet cabinetsOf(Long2ObjectOpenHashMap<LongOpenHashSet> networks, long controller) {
+        LongOpenHashSet cabinets = networks.get(controller);
+        if (cabinets == null) {
+            cabinets = new LongOpenHashSet();
+            networks.put(controller, cabinets);
+        }
+        return cabinets;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+        ListTag networks = new ListTag();
+        for (Long2ObjectMap.Entry<LongOpenHashSet> entry : controllerToCabinets.long2ObjectEntrySet()) {
+            long[] packed = new long[entry.getValue().size() + 1];
+            packed[0] = entry.getLongKey();
+
+            int i = 1;
+            for (LongIterator it = entry.getValue().iterator(); it.hasNext(); ) {
+                packed[i++] = it.nextLong();
+            }
+            networks.add(new LongArrayTag(packed));
+        }
+        tag.put("networks", networks);
+        return tag;
+    }
+
+    private static IndexNetworkRegistry load(CompoundTag tag, HolderLookup.Provider registries) {
+        IndexNetworkRegistry registry = new IndexNetworkRegistry();
+
+        ListTag networks = tag.getList("networks", Tag.TAG_LONG_ARRAY);
+        for (int i = 0; i < networks.size(); i++) {
+            long[] packed = ((LongArrayTag) networks.get(i)).getAsLongArray();
+            if (packed.length == 0) continue;
+
+            long controller = packed[0];
+            LongOpenHashSet cabinets = cabinetsOf(registry.controllerToCabinets, controller);
+            for (int j = 1; j < packed.length; j++) {
+                cabinets.add(packed[j]);
+                registry.cabinetToController.put(packed[j], controller);
+            }
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,140 @@
+package com.blocklogic.realfilingreborn.util;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.item.ItemStack;
+import net.neoforged.neoforge.items.ItemStackHandler;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.Optional;
+
+public class LazyItemStackHandler extends ItemStackHandler {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private CompoundTag[] encoded;
+    private boolean[] undecodable;
+    @Nullable
+    private HolderLookup.Provider registries;
+
+    public LazyItemStackHandler(int size) {
+        super(size);
+        this.encoded = new CompoundTag[size];
+        this.undecodable = new boolean[size];
+    }
+
+    public boolean isEncoded(int slot) {
+        return slot >= 0 && slot < encoded.length && encoded[slot] != null;
+    }
+
+    @Nullable
+    public CompoundTag getEncoded(int slot) {
+        return isEncoded(slot) ? encoded[slot] : null;
+    }
+
+    protected void onSlotDecoded(int slot) {
+    }
+
+    public boolean isUndecodable(int slot) {
+        return isEncoded(slot) && undecodable[slot];
+    }
+
+    private void ensureDecoded(int slot) {
+        if (!isEncoded(slot) || undecodable[slot]) return;
+
+        if (registries == null) {
+            throw new IllegalStateException("Cannot decode slot " + slot + " before registries are available");
+        }
+
+        Optional<ItemStack> parsed = ItemStack.parse(registries, encoded[slot]);
+        if (parsed.isEmpty()) {
+            undecodable[slot] = true;
+            LOGGER.warn("Keeping undecodable item in slot {} as saved data: {}", slot, encoded[slot]);
+            return;
+        }
+
+        stacks.set(slot, parsed.get());
+        encoded[slot] = null;
+        onSlotDecoded(slot);
+    }
+
+    @Override
+    public void setSize(int size) {
+        super.setSize(size);
+        encoded = new CompoundTag[size];
+        undecodable = new boolean[size];
+    }
+
+    @Override
+    public void setStackInSlot(int slot, ItemStack stack) {
+        if (isEncoded(slot)) {
+            if (undecodable[slot] && stack.isEmpty()) return;
+            encoded[slot] = null;
+            undecodable[slot] = false;
+        }
+        super.setStackInSlot(slot, stack);
+    }
+
+    @Override
+    public boolean isItemValid(int slot, ItemStack stack) {
+        ensureDecoded(slot);
+        return !isUndecodable(slot) && super.isItemValid(slot, stack);
+    }
+
+    @Override
+    public ItemStack getStackInSlot(int slot) {
+        ensureDecoded(slot);
+        return super.getStackInSlot(slot);
+    }
+
+    @Override
+    public ItemStack insertItem(int slot, ItemStack stack, boolean simulate) {
+        ensureDecoded(slot);
+        if (isUndecodable(slot)) return stack;
+        return super.insertItem(slot, stack, simulate);
+    }
+
+    @Override
+    public ItemStack extractItem(int slot, int amount, boolean simulate) {
+        ensureDecoded(slot);
+        return super.extractItem(slot, amount, simulate);
+    }
+
+    @Override
+    public CompoundTag serializeNBT(HolderLookup.Provider provider) {
+        ListTag items = new ListTag();
+        for (int slot = 0; slot < stacks.size(); slot++) {
+            if (encoded[slot] != null) {
+                items.add(encoded[slot].copy());
+            } else if (!stacks.get(slot).isEmpty()) {
+                CompoundTag itemTag = new CompoundTag();
+                itemTag.putInt("Slot", slot);
+                items.add(stacks.get(slot).save(provider, itemTag));
+            }
+        }
+
+        CompoundTag tag = new CompoundTag();
+        tag.put("Items", items);
+        tag.putInt("Size", stacks.size());
+        return tag;
+    }
+
+    @Override
+    public void deserializeNBT(HolderLookup.Provider provider, CompoundTag tag) {
+        setSize(tag.contains("Size", Tag.TAG_INT) ? tag.getInt("Size") : stacks.size());
+        registries = provider;
+
+        ListTag items = tag.getList("Items", Tag.TAG_COMPOUND);
+        for (int i = 0; i < items.size(); i++) {
+            CompoundTag itemTag = items.getCompound(i);
+            int slot = itemTag.getInt("Slot");
+            if (slot >= 0 && slot < stacks.size()) {
+                encoded[slot] = itemTag;
+            }
+        }
+        onLoad();
+    }
+}
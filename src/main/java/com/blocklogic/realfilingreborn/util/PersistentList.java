@@ -0,0 +1,206 @@
+package com.blocklogic.realfilingreborn.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+public final class PersistentList<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[0];
+    private static final PersistentList<?> EMPTY = new PersistentList<>(0, BITS, EMPTY_NODE, EMPTY_NODE);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentList(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> copyOf(Collection<? extends E> items) {
+        if (items instanceof PersistentList<?> persistent) {
+            return (PersistentList<E>) persistent;
+        }
+
+        PersistentList<E> result = empty();
+        for (E item : items) {
+            result = result.append(item);
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    public E last() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return get(size - 1);
+    }
+
+    public PersistentList<E> append(E item) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = item;
+            return new PersistentList<>(size + 1, shift, root, newTail);
+        }
+
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[]{root, newPath(shift, tail)};
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root);
+        }
+
+        return new PersistentList<>(size + 1, newShift, newRoot, new Object[]{item});
+    }
+
+    public PersistentList<E> with(int index, E item) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = item;
+            return new PersistentList<>(size, shift, root, newTail);
+        }
+
+        return new PersistentList<>(size, shift, assoc(shift, root, index, item), tail);
+    }
+
+    public PersistentList<E> append(E item, int times) {
+        PersistentList<E> result = this;
+        for (int i = 0; i < times; i++) {
+            result = result.append(item);
+        }
+        return result;
+    }
+
+    public PersistentList<E> pop() {
+        if (size == 0) {
+            throw new IllegalStateException("Cannot pop an empty list");
+        }
+        if (size == 1) {
+            return empty();
+        }
+
+        if (size - tailOffset() > 1) {
+            return new PersistentList<>(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+
+        Object[] newTail = leafFor(size - 2);
+        Object[] newRoot = popTail(shift, root);
+        int newShift = shift;
+
+        if (newRoot == null) {
+            newRoot = EMPTY_NODE;
+        }
+        if (shift > BITS && newRoot.length == 1) {
+            newRoot = (Object[]) newRoot[0];
+            newShift -= BITS;
+        }
+
+        return new PersistentList<>(size - 1, newShift, newRoot, newTail);
+    }
+
+    public PersistentList<E> pop(int count) {
+        if (count >= size) {
+            return empty();
+        }
+
+        PersistentList<E> result = this;
+        for (int i = 0; i < count; i++) {
+            result = result.pop();
+        }
+        return result;
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] node = Arrays.copyOf(parent, Math.max(parent.length, subIndex + 1));
+
+        if (level == BITS) {
+            node[subIndex] = tail;
+        } else {
+            Object child = subIndex < parent.length ? parent[subIndex] : null;
+            node[subIndex] = child != null ? pushTail(level - BITS, (Object[]) child) : newPath(level - BITS, tail);
+        }
+        return node;
+    }
+
+    private Object[] popTail(int level, Object[] node) {
+        int subIndex = ((size - 2) >>> level) & MASK;
+
+        if (level > BITS) {
+            Object[] child = popTail(level - BITS, (Object[]) node[subIndex]);
+            if (child == null) {
+                return subIndex == 0 ? null : Arrays.copyOf(node, subIndex);
+            }
+            Object[] copy = Arrays.copyOf(node, subIndex + 1);
+            copy[subIndex] = child;
+            return copy;
+        }
+
+        return subIndex == 0 ? null : Arrays.copyOf(node, subIndex);
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object item) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = item;
+        } else {
+            int subIndex = (index >>> level) & MASK;
+            copy[subIndex] = assoc(level - BITS, (Object[]) node[subIndex], index, item);
+        }
+        return copy;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        return level == 0 ? node : new Object[]{newPath(level - BITS, node)};
+    }
+}
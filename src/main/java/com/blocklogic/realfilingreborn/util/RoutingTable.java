@@ -0,0 +1,61 @@
+package com.blocklogic.realfilingreborn.util;
+
+import net.minecraft.core.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class RoutingTable<K> {
+    public record SlotLocation(BlockPos cabinetPos, int slot) {}
+
+    private final Map<K, Set<SlotLocation>> routes = new ConcurrentHashMap<>();
+    private final Map<SlotLocation, K> slotKeys = new ConcurrentHashMap<>();
+
+    public void route(BlockPos cabinetPos, int slot, @Nullable K key) {
+        SlotLocation location = new SlotLocation(cabinetPos, slot);
+        K previous = key != null ? slotKeys.put(location, key) : slotKeys.remove(location);
+
+        if (previous != null && !previous.equals(key)) {
+            unlink(previous, location);
+        }
+
+        if (key != null && !key.equals(previous)) {
+            routes.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(location);
+        }
+    }
+
+    public void removeCabinet(BlockPos cabinetPos, int slots) {
+        for (int slot = 0; slot < slots; slot++) {
+            route(cabinetPos, slot, null);
+        }
+    }
+
+    public Set<SlotLocation> lookup(K key) {
+        Set<SlotLocation> locations = routes.get(key);
+        return locations != null ? Collections.unmodifiableSet(locations) : Collections.emptySet();
+    }
+
+    @Nullable
+    public K getKey(BlockPos cabinetPos, int slot) {
+        return slotKeys.get(new SlotLocation(cabinetPos, slot));
+    }
+
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(routes.keySet());
+    }
+
+    public void clear() {
+        routes.clear();
+        slotKeys.clear();
+    }
+
+    private void unlink(K key, SlotLocation location) {
+        routes.computeIfPresent(key, (k, locations) -> {
+            locations.remove(location);
+            return locations.isEmpty() ? null : locations;
+        });
+    }
+}
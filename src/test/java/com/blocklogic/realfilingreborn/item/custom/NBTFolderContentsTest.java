@@ -0,0 +1,120 @@
+package com.blocklogic.realfilingreborn.item.custom;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.RegistryOps;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.neoforged.testframework.junit.EphemeralTestServerProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(EphemeralTestServerProvider.class)
+class NBTFolderContentsTest {
+    private static final ResourceLocation SWORD_ID = ResourceLocation.withDefaultNamespace("diamond_sword");
+
+    private static ItemStack named(String name) {
+        ItemStack stack = new ItemStack(Items.DIAMOND_SWORD);
+        stack.set(DataComponents.CUSTOM_NAME, Component.literal(name));
+        return stack;
+    }
+
+    private static void assertEntry(NBTFilingFolderItem.SerializedItemStack entry, ItemStack expected, int count) {
+        assertTrue(ItemStack.isSameItemSameComponents(expected, entry.stack()), "unexpected stack " + entry.stack());
+        assertEquals(count, entry.count());
+    }
+
+    private static NBTFilingFolderItem.NBTFolderContents sample() {
+        return new NBTFilingFolderItem.NBTFolderContents(Optional.empty(), List.of())
+                .withAppended(SWORD_ID, named("Alpha"), 3)
+                .withAppended(SWORD_ID, named("Beta"), 1)
+                .withAppended(SWORD_ID, named("Beta"), 2);
+    }
+
+    @Test
+    void appendGroupsWithTheLastEntryAndTracksTotal() {
+        NBTFilingFolderItem.NBTFolderContents contents = sample();
+
+        assertEquals(2, contents.storedItems().size());
+        assertEntry(contents.storedItems().get(0), named("Alpha"), 3);
+        assertEntry(contents.storedItems().get(1), named("Beta"), 3);
+        assertEquals(6, contents.totalCount());
+    }
+
+    @Test
+    void removalsKeepTheTotalInSync() {
+        NBTFilingFolderItem.NBTFolderContents contents = sample().withoutLast(4);
+        assertEquals(1, contents.storedItems().size());
+        assertEntry(contents.storedItems().get(0), named("Alpha"), 2);
+        assertEquals(2, contents.totalCount());
+
+        NBTFilingFolderItem.NBTFolderContents removed = sample().withoutEntry(0, 3);
+        assertEquals(1, removed.storedItems().size());
+        assertEntry(removed.storedItems().get(0), named("Beta"), 3);
+        assertEquals(3, removed.totalCount());
+    }
+
+    @Test
+    void codecRoundTripPreservesGroupedEntries(MinecraftServer server) {
+        RegistryOps<Tag> ops = server.registryAccess().createSerializationContext(NbtOps.INSTANCE);
+        NBTFilingFolderItem.NBTFolderContents contents = sample();
+
+        Tag encoded = NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value().codecOrThrow().encodeStart(ops, contents).getOrThrow();
+        NBTFilingFolderItem.NBTFolderContents decoded = NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value().codecOrThrow().parse(ops, encoded).getOrThrow();
+
+        assertEquals(contents.storedItemId(), decoded.storedItemId());
+        assertEquals(2, decoded.storedItems().size());
+        assertEntry(decoded.storedItems().get(0), named("Alpha"), 3);
+        assertEntry(decoded.storedItems().get(1), named("Beta"), 3);
+        assertEquals(6, decoded.totalCount());
+    }
+
+    @Test
+    void legacyPerItemListIsGroupedOnRead(MinecraftServer server) {
+        RegistryOps<Tag> ops = server.registryAccess().createSerializationContext(NbtOps.INSTANCE);
+        ListTag legacyItems = new ListTag();
+        for (String name : List.of("Alpha", "Beta", "Alpha", "Alpha", "Beta")) {
+            legacyItems.add(ItemStack.CODEC.encodeStart(ops, named(name)).getOrThrow());
+        }
+
+        CompoundTag legacy = new CompoundTag();
+        legacy.putString("storedItemId", SWORD_ID.toString());
+        legacy.put("storedItems", legacyItems);
+
+        NBTFilingFolderItem.NBTFolderContents decoded = NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value().codecOrThrow().parse(ops, legacy).getOrThrow();
+
+        assertEquals(Optional.of(SWORD_ID), decoded.storedItemId());
+        assertEquals(2, decoded.storedItems().size());
+        assertEntry(decoded.storedItems().get(0), named("Alpha"), 3);
+        assertEntry(decoded.storedItems().get(1), named("Beta"), 2);
+        assertEquals(5, decoded.totalCount());
+    }
+
+    @Test
+    void streamCodecRoundTrip(MinecraftServer server) {
+        RegistryFriendlyByteBuf buffer = new RegistryFriendlyByteBuf(Unpooled.buffer(), server.registryAccess());
+        NBTFilingFolderItem.NBTFolderContents contents = sample();
+
+        NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value().streamCodec().encode(buffer, contents);
+        NBTFilingFolderItem.NBTFolderContents decoded = NBTFilingFolderItem.NBT_FOLDER_CONTENTS.value().streamCodec().decode(buffer);
+
+        assertEquals(contents.storedItemId(), decoded.storedItemId());
+        assertEquals(2, decoded.storedItems().size());
+        assertEntry(decoded.storedItems().get(1), named("Beta"), 3);
+        assertEquals(6, decoded.totalCount());
+    }
+}
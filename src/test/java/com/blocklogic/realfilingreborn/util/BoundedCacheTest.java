@@ -0,0 +1,74 @@
+package com.blocklogic.realfilingreborn.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoundedCacheTest {
+
+    @Test
+    void loadsOnceAndCountsHits() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(4);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(5, cache.get("apple", key -> { loads.incrementAndGet(); return key.length(); }));
+        assertEquals(5, cache.get("apple", key -> { loads.incrementAndGet(); return -1; }));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void neverGrowsPastCapacity() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(8);
+        for (int i = 0; i < 100; i++) {
+            cache.get(i, key -> key * 2);
+        }
+        assertEquals(8, cache.size());
+    }
+
+    @Test
+    void referencedEntriesSurviveEviction() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(3);
+        cache.get(1, key -> key);
+        cache.get(2, key -> key);
+        cache.get(3, key -> key);
+        cache.get(1, key -> key);
+
+        cache.get(4, key -> key);
+
+        AtomicInteger reloads = new AtomicInteger();
+        cache.get(1, key -> { reloads.incrementAndGet(); return key; });
+        assertEquals(0, reloads.get());
+
+        cache.get(2, key -> { reloads.incrementAndGet(); return key; });
+        assertEquals(1, reloads.get());
+    }
+
+    @Test
+    void nullValuesAreNotCached() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get("missing", key -> { loads.incrementAndGet(); return null; }));
+        assertNull(cache.get("missing", key -> { loads.incrementAndGet(); return null; }));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void clearDropsEntries() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2);
+        cache.get("a", key -> 1);
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.get("a", key -> 2));
+    }
+}
@@ -0,0 +1,103 @@
+package com.blocklogic.realfilingreborn.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentListTest {
+
+    @Test
+    void appendAndPopAcrossTrieLevels() {
+        PersistentList<Integer> list = PersistentList.empty();
+        int size = 32 * 32 * 32 + 40;
+        for (int i = 0; i < size; i++) {
+            list = list.append(i);
+        }
+
+        assertEquals(size, list.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, list.get(i));
+        }
+
+        for (int i = size - 1; i >= 0; i--) {
+            assertEquals(i, list.last());
+            list = list.pop();
+            assertEquals(i, list.size());
+        }
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    void oldVersionsAreUnchanged() {
+        PersistentList<Integer> base = PersistentList.copyOf(List.of(1, 2, 3));
+        PersistentList<Integer> appended = base.append(4);
+        PersistentList<Integer> replaced = base.with(1, 20);
+        PersistentList<Integer> popped = base.pop();
+
+        assertEquals(List.of(1, 2, 3), base);
+        assertEquals(List.of(1, 2, 3, 4), appended);
+        assertEquals(List.of(1, 20, 3), replaced);
+        assertEquals(List.of(1, 2), popped);
+    }
+
+    @Test
+    void copyOfReusesPersistentInstances() {
+        PersistentList<String> list = PersistentList.copyOf(List.of("a", "b"));
+        assertSame(list, PersistentList.copyOf(list));
+    }
+
+    @Test
+    void popCountAndRepeatedAppend() {
+        PersistentList<String> list = PersistentList.<String>empty().append("x", 70);
+        assertEquals(70, list.size());
+        assertEquals(5, list.pop(65).size());
+        assertTrue(list.pop(100).isEmpty());
+    }
+
+    @Test
+    void outOfBoundsAccessFails() {
+        PersistentList<Integer> list = PersistentList.copyOf(List.of(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.with(-1, 0));
+        assertThrows(IllegalStateException.class, () -> PersistentList.empty().pop());
+    }
+
+    @Test
+    void matchesArrayListUnderRandomOperations() {
+        Random random = new Random(42);
+        PersistentList<Integer> list = PersistentList.empty();
+        List<Integer> expected = new ArrayList<>();
+
+        for (int op = 0; op < 50_000; op++) {
+            int choice = random.nextInt(10);
+            if (choice < 6 || expected.isEmpty()) {
+                int value = random.nextInt();
+                list = list.append(value);
+                expected.add(value);
+            } else if (choice < 8) {
+                int index = random.nextInt(expected.size());
+                int value = random.nextInt();
+                list = list.with(index, value);
+                expected.set(index, value);
+            } else {
+                list = list.pop();
+                expected.remove(expected.size() - 1);
+            }
+
+            assertEquals(expected.size(), list.size());
+            if (!expected.isEmpty()) {
+                int probe = random.nextInt(expected.size());
+                assertEquals(expected.get(probe), list.get(probe));
+            }
+        }
+
+        assertEquals(expected, list);
+    }
+}
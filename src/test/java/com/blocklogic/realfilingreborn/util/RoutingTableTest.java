@@ -0,0 +1,80 @@
+package com.blocklogic.realfilingreborn.util;
+
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingTableTest {
+    private static final BlockPos CABINET_A = new BlockPos(0, 64, 0);
+    private static final BlockPos CABINET_B = new BlockPos(3, 64, -2);
+
+    @Test
+    void routesSlotsUnderTheirKey() {
+        RoutingTable<String> table = new RoutingTable<>();
+        table.route(CABINET_A, 0, "stone");
+        table.route(CABINET_B, 4, "stone");
+        table.route(CABINET_A, 1, "dirt");
+
+        assertEquals(Set.of(new RoutingTable.SlotLocation(CABINET_A, 0), new RoutingTable.SlotLocation(CABINET_B, 4)), table.lookup("stone"));
+        assertEquals(Set.of(new RoutingTable.SlotLocation(CABINET_A, 1)), table.lookup("dirt"));
+        assertEquals("dirt", table.getKey(CABINET_A, 1));
+    }
+
+    @Test
+    void reroutingMovesTheSlotAndDropsEmptyKeys() {
+        RoutingTable<String> table = new RoutingTable<>();
+        table.route(CABINET_A, 2, "stone");
+        table.route(CABINET_A, 2, "dirt");
+
+        assertTrue(table.lookup("stone").isEmpty());
+        assertEquals(Set.of("dirt"), table.keys());
+        assertEquals(Set.of(new RoutingTable.SlotLocation(CABINET_A, 2)), table.lookup("dirt"));
+    }
+
+    @Test
+    void routingTheSameKeyTwiceIsIdempotent() {
+        RoutingTable<String> table = new RoutingTable<>();
+        table.route(CABINET_A, 0, "stone");
+        table.route(CABINET_A, 0, "stone");
+
+        assertEquals(1, table.lookup("stone").size());
+    }
+
+    @Test
+    void nullKeyUnroutesTheSlot() {
+        RoutingTable<String> table = new RoutingTable<>();
+        table.route(CABINET_A, 3, "stone");
+        table.route(CABINET_A, 3, null);
+
+        assertNull(table.getKey(CABINET_A, 3));
+        assertTrue(table.keys().isEmpty());
+    }
+
+    @Test
+    void removeCabinetOnlyClearsThatCabinet() {
+        RoutingTable<String> table = new RoutingTable<>();
+        for (int slot = 0; slot < 5; slot++) {
+            table.route(CABINET_A, slot, "stone");
+        }
+        table.route(CABINET_B, 0, "stone");
+
+        table.removeCabinet(CABINET_A, 5);
+
+        assertEquals(Set.of(new RoutingTable.SlotLocation(CABINET_B, 0)), table.lookup("stone"));
+    }
+
+    @Test
+    void clearEmptiesEverything() {
+        RoutingTable<String> table = new RoutingTable<>();
+        table.route(CABINET_A, 0, "stone");
+        table.clear();
+
+        assertTrue(table.keys().isEmpty());
+        assertNull(table.getKey(CABINET_A, 0));
+    }
+}